@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.drawable;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the cost of drawing an avatar as an anti-aliased oval with a bitmap shader and drawing its pre-rasterized bitmap.
+ * The timings are logged, run on a device and filter logcat by {@link #TAG} to read them.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RoundedAvatarDrawableBenchmark {
+
+    private static final String TAG = "AvatarBenchmark";
+
+    private static final int SOURCE_SIZE = 256;
+    private static final int AVATAR_SIZE = 144;
+    private static final int OFFSET = 8;
+
+    private static final int WARM_UP_DRAWS = 100;
+    private static final int MEASURED_DRAWS = 2000;
+
+    private Bitmap source;
+
+    @Before
+    public void setUp() {
+        source = Bitmap.createBitmap(SOURCE_SIZE, SOURCE_SIZE, Bitmap.Config.ARGB_8888);
+        Paint paint = new Paint();
+        paint.setShader(new LinearGradient(0, 0, SOURCE_SIZE, SOURCE_SIZE, Color.RED, Color.BLUE, Shader.TileMode.CLAMP));
+        new Canvas(source).drawPaint(paint);
+    }
+
+    @Test
+    public void preRasterizedDrawsSamePixels() {
+        Bitmap shaderPixels = drawOnce(createDrawable(false));
+        Bitmap rasterPixels = drawOnce(createDrawable(true));
+
+        int[] expected = getPixels(shaderPixels);
+        int[] actual = getPixels(rasterPixels);
+        for (int i = 0; i < expected.length; i++) {
+            assertTrue("Pixel " + i, channelsDifferBy(expected[i], actual[i]) <= 1);
+        }
+    }
+
+    @Test
+    public void compareDrawCost() {
+        long shaderNanos = measureDraw(createDrawable(false));
+        long rasterNanos = measureDraw(createDrawable(true));
+
+        Log.i(TAG, String.format(Locale.US, "Shader path: %.2f us per draw", shaderNanos / 1000f / MEASURED_DRAWS));
+        Log.i(TAG, String.format(Locale.US, "Pre-rasterized path: %.2f us per draw", rasterNanos / 1000f / MEASURED_DRAWS));
+        Log.i(TAG, String.format(Locale.US, "Pre-rasterized draws take %.0f%% of the shader path", 100f * rasterNanos / shaderNanos));
+    }
+
+    private RoundedAvatarDrawable createDrawable(boolean preRasterized) {
+        RoundedAvatarDrawable drawable = new RoundedAvatarDrawable(source, AVATAR_SIZE);
+        drawable.setPreRasterized(preRasterized);
+        drawable.setBounds(OFFSET, OFFSET, OFFSET + AVATAR_SIZE, OFFSET + AVATAR_SIZE);
+        return drawable;
+    }
+
+    private static Bitmap drawOnce(RoundedAvatarDrawable drawable) {
+        Bitmap target = Bitmap.createBitmap(AVATAR_SIZE + 2 * OFFSET, AVATAR_SIZE + 2 * OFFSET, Bitmap.Config.ARGB_8888);
+        drawable.draw(new Canvas(target));
+        return target;
+    }
+
+    private static long measureDraw(RoundedAvatarDrawable drawable) {
+        Bitmap target = Bitmap.createBitmap(AVATAR_SIZE + 2 * OFFSET, AVATAR_SIZE + 2 * OFFSET, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(target);
+        for (int i = 0; i < WARM_UP_DRAWS; i++) {
+            drawable.draw(canvas);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_DRAWS; i++) {
+            drawable.draw(canvas);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static int[] getPixels(Bitmap bitmap) {
+        int[] pixels = new int[bitmap.getWidth() * bitmap.getHeight()];
+        bitmap.getPixels(pixels, 0, bitmap.getWidth(), 0, 0, bitmap.getWidth(), bitmap.getHeight());
+        return pixels;
+    }
+
+    private static int channelsDifferBy(int expected, int actual) {
+        int difference = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            difference = Math.max(difference, Math.abs(((expected >> shift) & 0xff) - ((actual >> shift) & 0xff)));
+        }
+        return difference;
+    }
+}
@@ -33,6 +33,9 @@ import android.util.AttributeSet;
 import android.view.View;
 import android.view.ViewGroup;
 
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerAdapter;
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerItemSource;
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerRowPool;
 import com.heinrichreimersoftware.materialdrawer.structure.DrawerItem;
 import com.heinrichreimersoftware.materialdrawer.structure.DrawerProfile;
 import com.heinrichreimersoftware.materialdrawer.theme.DrawerTheme;
@@ -79,6 +82,13 @@ public class DrawerFrameLayout extends DrawerLayout {
             resetDrawerMaxWidth();
         }
         a.recycle();
+
+        addDrawerListener(new SimpleDrawerListener() {
+            @Override
+            public void onDrawerSlide(View drawerView, float slideOffset) {
+                mDrawer.materializeList();
+            }
+        });
     }
 
     @Override
@@ -103,6 +113,129 @@ public class DrawerFrameLayout extends DrawerLayout {
         return this;
     }
 
+    /**
+     * Gets the pool rows are taken from before they are inflated
+     *
+     * @return The row pool or {@code null} if rows are always inflated
+     */
+    public DrawerRowPool getRowPool() {
+        return mDrawer.getRowPool();
+    }
+
+    /**
+     * Sets a pool of rows that were inflated on a background thread ahead of time.
+     * Item, fixed item and profile rows are taken from the pool before they are inflated on the main thread.
+     *
+     * @param rowPool Pool to use or {@code null} to always inflate rows
+     */
+    public DrawerFrameLayout setRowPool(DrawerRowPool rowPool) {
+        mDrawer.setRowPool(rowPool);
+        return this;
+    }
+
+    /**
+     * Gets whether items are displayed as flat rows
+     *
+     * @return True if supported items are drawn by a single view each, false otherwise.
+     */
+    public boolean isFlatRowsEnabled() {
+        return mDrawer.isFlatRowsEnabled();
+    }
+
+    /**
+     * Sets whether items and fixed items should be displayed as flat rows.
+     * A flat row draws the image and texts of an item in a single view instead of inflating a layout with four views,
+     * which makes large menus faster to measure and lay out. Items in three line text mode always use the inflated layout.
+     * The texts of flat rows are laid out on a background thread as items are added, the texts of inflated rows are not.
+     *
+     * @param flatRowsEnabled True to draw supported items in a single view each, false to inflate all rows.
+     */
+    public DrawerFrameLayout setFlatRowsEnabled(boolean flatRowsEnabled) {
+        mDrawer.setFlatRowsEnabled(flatRowsEnabled);
+        return this;
+    }
+
+    /**
+     * Gets whether the item list is virtualized
+     *
+     * @return True if only the visible items are bound, false otherwise.
+     */
+    public boolean isListVirtualized() {
+        return mDrawer.isListVirtualized();
+    }
+
+    /**
+     * Sets whether the item list should be virtualized
+     *
+     * @param listVirtualized True to bind only the visible items, false to bind all items at once.
+     */
+    public DrawerFrameLayout setListVirtualized(boolean listVirtualized) {
+        mDrawer.setListVirtualized(listVirtualized);
+        return this;
+    }
+
+    /**
+     * Gets the number of updates that were merged into an update already scheduled for the next frame
+     *
+     * @return Number of coalesced updates since the counters were reset
+     */
+    public long getCoalescedUpdateCount() {
+        return mDrawer.getCoalescedUpdateCount();
+    }
+
+    /**
+     * Gets the number of updates of the item list, the fixed item list, the profile list or the profile header that were executed
+     *
+     * @return Number of executed updates since the counters were reset
+     */
+    public long getExecutedUpdateCount() {
+        return mDrawer.getExecutedUpdateCount();
+    }
+
+    /**
+     * Resets the coalesced and executed update counters
+     */
+    public DrawerFrameLayout resetUpdateCounters() {
+        mDrawer.resetUpdateCounters();
+        return this;
+    }
+
+    /**
+     * Gets whether creating the item rows is deferred
+     *
+     * @return True if rows are only created once the drawer starts opening or the main thread is idle, false otherwise.
+     */
+    public boolean isListDeferred() {
+        return mDrawer.isListDeferred();
+    }
+
+    /**
+     * Sets whether creating the item and fixed item rows should be deferred until the drawer starts opening or the main thread is idle
+     *
+     * @param listDeferred True to defer creating rows, false to create them immediately.
+     */
+    public DrawerFrameLayout setListDeferred(boolean listDeferred) {
+        mDrawer.setListDeferred(listDeferred);
+        return this;
+    }
+
+    /**
+     * Gets whether the item rows have been created
+     *
+     * @return True if the item and fixed item rows exist, false if creating them is still deferred.
+     */
+    public boolean isListMaterialized() {
+        return mDrawer.isListMaterialized();
+    }
+
+    /**
+     * Creates the item and fixed item rows now if creating them was deferred
+     */
+    public DrawerFrameLayout materializeList() {
+        mDrawer.materializeList();
+        return this;
+    }
+
     /**
      * Resets the drawer theme
      */
@@ -163,6 +296,34 @@ public class DrawerFrameLayout extends DrawerLayout {
         return this;
     }
 
+    /**
+     * Starts a batch of changes to the drawer view.
+     * Item, fixed item and profile changes made until the matching {@link #commitBatch()} are applied
+     * with a single notification and layout pass. Batches can be nested.
+     * Call {@link #commitBatch()} in a {@code finally} block, as changes are held back until every batch is committed.
+     */
+    public DrawerFrameLayout beginBatch() {
+        mDrawer.beginBatch();
+        return this;
+    }
+
+    /**
+     * Applies all changes made since the matching {@link #beginBatch()}
+     */
+    public DrawerFrameLayout commitBatch() {
+        mDrawer.commitBatch();
+        return this;
+    }
+
+    /**
+     * Gets whether a batch of changes is in progress
+     *
+     * @return True if {@link #beginBatch()} was called without a matching {@link #commitBatch()}, false otherwise.
+     */
+    public boolean isInBatch() {
+        return mDrawer.isInBatch();
+    }
+
     /**
      * Adds a profile to the drawer view
      *
@@ -176,7 +337,7 @@ public class DrawerFrameLayout extends DrawerLayout {
     /**
      * Gets all profiles from the drawer view
      *
-     * @return Profiles from the drawer view
+     * @return Unmodifiable list of the profiles from the drawer view
      */
     public List<DrawerProfile> getProfiles() {
         return mDrawer.getProfiles();
@@ -240,6 +401,18 @@ public class DrawerFrameLayout extends DrawerLayout {
         return this;
     }
 
+    /**
+     * Replaces all profiles of the drawer view.
+     * The changes are calculated by profile ID on a background thread and applied at once.
+     * The current profile stays selected if it is still contained.
+     *
+     * @param profiles Profiles to set
+     */
+    public DrawerFrameLayout setProfiles(List<DrawerProfile> profiles) {
+        mDrawer.setProfiles(profiles);
+        return this;
+    }
+
     /**
      * Gets the profile click listener of the drawer
      *
@@ -354,7 +527,7 @@ public class DrawerFrameLayout extends DrawerLayout {
     /**
      * Gets all items from the drawer
      *
-     * @return Items from the drawer
+     * @return Unmodifiable list of the items from the drawer
      */
     public List<DrawerItem> getItems() {
         return mDrawer.getItems();
@@ -445,6 +618,77 @@ public class DrawerFrameLayout extends DrawerLayout {
         return this;
     }
 
+    /**
+     * Replaces all items of the drawer.
+     * The changes are calculated by item ID on a background thread and applied at once.
+     * Rows of unchanged items are kept and the selected item stays selected if it is still contained.
+     *
+     * @param items Items to set
+     */
+    public DrawerFrameLayout setItems(List<DrawerItem> items) {
+        mDrawer.setItems(items);
+        return this;
+    }
+
+    /**
+     * Replaces all items of the drawer with the items of a source, loaded in pages of {@link DrawerAdapter#DEFAULT_PAGE_SIZE} items
+     *
+     * @param source Source to load items from or {@code null} to remove all items
+     */
+    public DrawerFrameLayout setItemSource(DrawerItemSource source) {
+        mDrawer.setItemSource(source);
+        return this;
+    }
+
+    /**
+     * Replaces all items of the drawer with the items of a source that are loaded page by page on a background thread
+     *
+     * @param source           Source to load items from or {@code null} to remove all items
+     * @param pageSize         Number of items to load at once
+     * @param prefetchDistance Number of rows before and after a bound row whose pages should be loaded as well
+     */
+    public DrawerFrameLayout setItemSource(DrawerItemSource source, int pageSize, int prefetchDistance) {
+        mDrawer.setItemSource(source, pageSize, prefetchDistance);
+        return this;
+    }
+
+    /**
+     * Gets the source items are loaded from
+     *
+     * @return The source or {@code null} if the items were added directly
+     */
+    public DrawerItemSource getItemSource() {
+        return mDrawer.getItemSource();
+    }
+
+    /**
+     * Shows only the items whose primary or secondary text contains words starting with the words of a query, ignoring case and accents.
+     * Fixed items are not filtered.
+     *
+     * @param query The query or {@code null} to show all items
+     */
+    public DrawerFrameLayout setFilter(CharSequence query) {
+        mDrawer.setFilter(query);
+        return this;
+    }
+
+    /**
+     * Gets the current filter query
+     *
+     * @return The query or {@code null} if all items are shown
+     */
+    public String getFilter() {
+        return mDrawer.getFilter();
+    }
+
+    /**
+     * Shows all items again
+     */
+    public DrawerFrameLayout clearFilter() {
+        mDrawer.clearFilter();
+        return this;
+    }
+
     /**
      * Gets the item click listener of the drawer
      *
@@ -523,7 +767,7 @@ public class DrawerFrameLayout extends DrawerLayout {
     /**
      * Gets all fixed items from the drawer
      *
-     * @return Items from the drawer
+     * @return Unmodifiable list of the fixed items from the drawer
      */
     public List<DrawerItem> getFixedItems() {
         return mDrawer.getFixedItems();
@@ -614,6 +858,18 @@ public class DrawerFrameLayout extends DrawerLayout {
         return this;
     }
 
+    /**
+     * Replaces all fixed items of the drawer.
+     * The changes are calculated by item ID on a background thread and applied at once.
+     * Rows of unchanged items are kept and the selected item stays selected if it is still contained.
+     *
+     * @param items Items to set
+     */
+    public DrawerFrameLayout setFixedItems(List<DrawerItem> items) {
+        mDrawer.setFixedItems(items);
+        return this;
+    }
+
     /**
      * Gets the fixed item click listener of the drawer
      *
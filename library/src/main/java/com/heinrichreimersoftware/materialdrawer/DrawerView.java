@@ -37,9 +37,13 @@ import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.os.Parcelable;
 import android.support.v4.content.ContextCompat;
 import android.support.v4.text.TextUtilsCompat;
+import android.support.v4.util.LongSparseArray;
+import android.support.v4.view.ViewCompat;
 import android.support.v7.graphics.Palette;
 import android.util.AttributeSet;
 import android.util.Log;
@@ -47,28 +51,43 @@ import android.util.Property;
 import android.util.TypedValue;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
 import android.widget.FrameLayout;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
+import android.widget.ListAdapter;
+import android.widget.ListView;
 import android.widget.RelativeLayout;
 import android.widget.ScrollView;
 import android.widget.TextView;
 
 import com.heinrichreimersoftware.materialdrawer.adapter.DrawerAdapter;
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerDiff;
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerItemSource;
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerMetrics;
 import com.heinrichreimersoftware.materialdrawer.adapter.DrawerProfileAdapter;
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerRowPool;
 import com.heinrichreimersoftware.materialdrawer.animation.AlphaSatColorMatrixEvaluator;
 import com.heinrichreimersoftware.materialdrawer.animation.AnimatableColorMatrixColorFilter;
 import com.heinrichreimersoftware.materialdrawer.animation.StepInterpolator;
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerGroupItem;
 import com.heinrichreimersoftware.materialdrawer.structure.DrawerHeaderItem;
 import com.heinrichreimersoftware.materialdrawer.structure.DrawerItem;
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerPlaceholderItem;
 import com.heinrichreimersoftware.materialdrawer.structure.DrawerProfile;
 import com.heinrichreimersoftware.materialdrawer.theme.DrawerTheme;
 import com.heinrichreimersoftware.materialdrawer.widget.LinearListView;
 import com.heinrichreimersoftware.materialdrawer.widget.ScrimInsetsFrameLayout;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * View to be used with {@link android.support.v4.widget.DrawerLayout} to display a drawer which is fully compliant with the Material Design specification.
@@ -103,6 +122,14 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         }
     };
     private DrawerProfileAdapter mProfileAdapter;
+    /**
+     * Number of palettes being generated from the background of each profile
+     */
+    private final Map<DrawerProfile, Integer> mPaletteProfiles = new IdentityHashMap<>();
+    /**
+     * Profiles whose background is trimmed once their palettes were generated
+     */
+    private final Set<DrawerProfile> mTrimPendingProfiles = Collections.newSetFromMap(new IdentityHashMap<DrawerProfile, Boolean>());
     private DrawerAdapter mAdapter;
     private DrawerAdapter mAdapterFixed;
     private DrawerProfile.OnProfileClickListener onProfileClickListener;
@@ -124,6 +151,9 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
     private ImageView imageViewOpenProfileListIcon;
     private LinearListView linearListViewProfileList;
     private LinearListView linearListView;
+    private ListView listViewVirtualized;
+    private ListAdapter listViewVirtualizedAdapter;
+    private View listViewVirtualizedSpacer;
     private View fixedShadow;
     private View fixedDivider;
     private LinearLayout fixedListContainer;
@@ -132,9 +162,60 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
     private int statusBarHeight = 0;
     private int drawerMaxWidth = -1;
     private boolean profileListOpen = false;
+    private boolean listVirtualized = false;
+    private boolean listDeferred = false;
+    private boolean listMaterialized = true;
+    private boolean idleHandlerQueued = false;
     private boolean isInViewHierarchy = false;
+    private int batchDepth = 0;
+    private boolean batchListChanged = false;
+    private boolean batchFixedListChanged = false;
+    private boolean batchProfileChanged = false;
+    private int itemsGeneration = 0;
+    private int fixedItemsGeneration = 0;
+    private int profilesGeneration = 0;
     private boolean loggingEnabled = false;
 
+    private static final int DIRTY_LIST = 1;
+    private static final int DIRTY_FIXED_LIST = 1 << 1;
+    private static final int DIRTY_PROFILE_LIST = 1 << 2;
+    private static final int DIRTY_PROFILE = 1 << 3;
+
+    private int dirtyFlags = 0;
+    private boolean frameUpdateScheduled = false;
+    private long coalescedUpdateCount = 0;
+    private long executedUpdateCount = 0;
+
+    private final Runnable frameUpdate = new Runnable() {
+        @Override
+        public void run() {
+            frameUpdateScheduled = false;
+            runFrameUpdate();
+        }
+    };
+
+    private final DrawerAdapter.NotifyScheduler notifyScheduler = new DrawerAdapter.NotifyScheduler() {
+        @Override
+        public void scheduleNotify(ArrayAdapter<?> adapter) {
+            if (adapter == mAdapter) {
+                scheduleFrameUpdate(DIRTY_LIST);
+            } else if (adapter == mAdapterFixed) {
+                scheduleFrameUpdate(DIRTY_FIXED_LIST);
+            } else if (adapter == mProfileAdapter) {
+                scheduleFrameUpdate(DIRTY_PROFILE_LIST);
+            }
+        }
+    };
+
+    private final MessageQueue.IdleHandler materializeIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            idleHandlerQueued = false;
+            materializeList();
+            return false;
+        }
+    };
+
     public DrawerView(Context context) {
         this(context, null);
     }
@@ -160,7 +241,14 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
 
         setOnInsetsCallback(this);
 
+        // Item and fixed item rows are bound by the same adapter class, so the lists share their recycled rows.
+        // Profile rows keep their own pool, as item rows carry state the profile adapter doesn't reset, e.g. icon tints.
+        LinearListView.RecycledViewPool recycledViewPool = new LinearListView.RecycledViewPool();
+        linearListView.setRecycledViewPool(recycledViewPool);
+        linearListViewFixed.setRecycledViewPool(recycledViewPool);
+
         mProfileAdapter = new DrawerProfileAdapter(context, new ArrayList<DrawerProfile>());
+        mProfileAdapter.setNotifyScheduler(notifyScheduler);
         linearListViewProfileList.setAdapter(mProfileAdapter);
         linearListViewProfileList.setOnItemClickListener(new LinearListView.OnItemClickListener() {
             @Override
@@ -172,30 +260,48 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         });
 
         mAdapter = new DrawerAdapter(context, new ArrayList<DrawerItem>());
+        mAdapter.setNotifyScheduler(notifyScheduler);
         linearListView.setAdapter(mAdapter);
         linearListView.setOnItemClickListener(new LinearListView.OnItemClickListener() {
             @Override
             public void onItemClick(LinearListView parent, View view, int position, long id) {
-                DrawerItem item = mAdapter.getItem(position);
-                if (!item.isHeader()) {
-                    if (item.hasOnItemClickListener()) {
-                        item.getOnItemClickListener().onClick(item, item.getId(), position);
-                    } else {
-                        if (hasOnItemClickListener()) {
-                            mOnItemClickListener.onClick(item, item.getId(), position);
-                        }
+                onListItemClick(position);
+            }
+        });
+        listViewVirtualized.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+            @Override
+            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+                position -= listViewVirtualized.getHeaderViewsCount();
+                if (position >= 0 && position < mAdapter.getFilteredCount()) {
+                    onListItemClick(mAdapter.getUnfilteredPosition(position));
+                }
+            }
+        });
+        mAdapter.registerItemObserver(new LinearListView.ItemObserver() {
+            @Override
+            public void onItemChanged(int position, int payload) {
+                int filteredPosition = mAdapter.getFilteredPosition(position);
+                if (listVirtualized && listViewVirtualizedAdapter != null && filteredPosition >= 0) {
+                    View child = listViewVirtualized.getChildAt(filteredPosition + listViewVirtualized.getHeaderViewsCount() - listViewVirtualized.getFirstVisiblePosition());
+                    if (child != null && mAdapter.bindView(position, child, listViewVirtualized, payload) != child) {
+                        mAdapter.notifyDataSetChanged();
                     }
                 }
             }
         });
+        listViewVirtualizedSpacer = new View(context);
+        listViewVirtualizedSpacer.setLayoutParams(new AbsListView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, getResources().getDimensionPixelSize(R.dimen.md_drawer_list_margin_vertical)));
 
         mAdapterFixed = new DrawerAdapter(context, new ArrayList<DrawerItem>());
+        mAdapterFixed.setNotifyScheduler(notifyScheduler);
         linearListViewFixed.setAdapter(mAdapterFixed);
         linearListViewFixed.setOnItemClickListener(new LinearListView.OnItemClickListener() {
             @Override
             public void onItemClick(LinearListView parent, View view, int position, long id) {
                 DrawerItem item = mAdapterFixed.getItem(position);
-                if (!item.isHeader()) {
+                if (item instanceof DrawerGroupItem) {
+                    ((DrawerGroupItem) item).toggleExpanded();
+                } else if (!item.isHeader() && !(item instanceof DrawerPlaceholderItem)) {
                     if (item.hasOnItemClickListener()) {
                         item.getOnItemClickListener().onClick(item, item.getId(), position);
                     } else {
@@ -246,6 +352,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
 
 
         linearListView = (LinearListView) findViewById(R.id.mdList);
+        listViewVirtualized = (ListView) findViewById(R.id.mdListVirtualized);
 
         fixedShadow = findViewById(R.id.mdFixedShadow);
         fixedDivider = findViewById(R.id.mdFixedDivider);
@@ -316,6 +423,8 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         getLayoutParams().width = Math.min(width, drawerMaxWidth);
 
         updateProfileSpacing();
+        precomputeTextLayouts(mAdapter, linearListView);
+        precomputeTextLayouts(mAdapterFixed, linearListViewFixed);
     }
 
     private void updateProfileSpacing() {
@@ -347,6 +456,14 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
 
     private void updateProfile() {
         if (loggingEnabled) Log.d(TAG, "updateProfile()");
+        if (batchDepth > 0) {
+            batchProfileChanged = true;
+            return;
+        }
+        scheduleFrameUpdate(DIRTY_PROFILE);
+    }
+
+    private void reconcileProfile() {
         if (mProfileAdapter.getCount() > 0 && isInViewHierarchy) {
 
             if (mProfileAdapter.getCount() > 2) {
@@ -359,20 +476,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
                     }
                 });
 
-                if (mProfileAdapter.getItem(0).getBackground() instanceof BitmapDrawable) {
-                    new Palette.Builder(((BitmapDrawable) mProfileAdapter.getItem(0).getBackground()).getBitmap())
-                            .resizeBitmapSize(500)
-                            .generate(new Palette.PaletteAsyncListener() {
-                                @Override
-                                public void onGenerated(Palette palette) {
-                                    Palette.Swatch vibrantSwatch = palette.getVibrantSwatch();
-                                    if (vibrantSwatch != null) {
-                                        textViewProfileAvatarCount.setTextColor(vibrantSwatch.getTitleTextColor());
-                                        textViewProfileAvatarCount.getBackground().setColorFilter(vibrantSwatch.getRgb(), PorterDuff.Mode.SRC_IN);
-                                    }
-                                }
-                            });
-                }
+                generateProfilePalette(mProfileAdapter.getItem(0));
 
                 imageViewProfileAvatarSecondary.setVisibility(INVISIBLE);
                 textViewProfileAvatarCount.setVisibility(VISIBLE);
@@ -407,6 +511,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
                 textViewProfileName.setText(mProfileAdapter.getItem(0).getName());
             }
 
+            mProfileAdapter.getItem(0).restoreBackground();
             if (mProfileAdapter.getItem(0).getBackground() != null) {
                 imageViewProfileBackground.setImageDrawable(mProfileAdapter.getItem(0).getBackground());
             } else {
@@ -450,9 +555,93 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         }
     }
 
+    private List<DrawerItem> prepareItems(List<DrawerItem> items) {
+        List<DrawerItem> preparedItems = new ArrayList<>(items.size());
+        LongSparseArray<DrawerItem> itemsById = new LongSparseArray<>(items.size());
+        for (DrawerItem item : items) {
+            prepareItem(item, preparedItems, itemsById);
+            if (item instanceof DrawerGroupItem && ((DrawerGroupItem) item).isExpanded()) {
+                for (DrawerItem child : ((DrawerGroupItem) item).getChildren()) {
+                    prepareItem(child, preparedItems, itemsById);
+                }
+            }
+        }
+        return preparedItems;
+    }
+
+    private void prepareItem(DrawerItem item, List<DrawerItem> preparedItems, LongSparseArray<DrawerItem> itemsById) {
+        if (item.getId() <= 0) {
+            item.setId(System.nanoTime() * 100 + Math.round(Math.random() * 100));
+        }
+        if (itemsById.get(item.getId()) != null) {
+            throw new IllegalArgumentException("Duplicate item ID " + item.getId() + ".");
+        }
+        itemsById.put(item.getId(), item);
+        preparedItems.add(item);
+    }
+
+    private void removeFromAdapter(DrawerAdapter adapter, DrawerItem item) {
+        if (item.getGroup() != null) {
+            item.getGroup().removeChild(item);
+            return;
+        }
+        if (item instanceof DrawerGroupItem) {
+            adapter.hideGroupChildren((DrawerGroupItem) item);
+        }
+        item.detach();
+        adapter.remove(item);
+    }
+
+    private void applyItemDiff(DrawerAdapter adapter, DrawerDiff<DrawerItem> diff, boolean fixed) {
+        if (loggingEnabled) Log.d(TAG, "applyItemDiff()");
+        int selectedPosition = adapter.getSelectedPosition();
+        DrawerItem selectedItem = selectedPosition >= 0 && selectedPosition < adapter.getCount() ?
+                adapter.getItem(selectedPosition) : null;
+
+        for (DrawerItem item : diff.getNewList()) {
+            item.attachTo(adapter);
+        }
+
+        if (!diff.isStructural()) {
+            // Only contents changed, rebind the changed rows in place
+            diff.dispatchTo(adapter);
+        } else {
+            beginBatch();
+            try {
+                diff.dispatchTo(adapter);
+                if (selectedItem != null) {
+                    DrawerItem item = adapter.findById(selectedItem.getId());
+                    adapter.select(item != null ? adapter.getPosition(item) : -1);
+                }
+                if (fixed) {
+                    updateFixedList();
+                } else {
+                    updateList();
+                }
+            } finally {
+                commitBatch();
+            }
+        }
+
+        for (DrawerItem item : diff.getOldList()) {
+            if (adapter.findById(item.getId()) != item) {
+                item.detach();
+            }
+        }
+    }
+
     private void updateList() {
         if (loggingEnabled) Log.d(TAG, "updateList()");
+        if (batchDepth > 0) {
+            batchListChanged = true;
+            return;
+        }
+        // Start building the text layouts now, so the worker has until the next frame binds and measures the rows
+        precomputeTextLayouts(mAdapter, linearListView);
+        scheduleFrameUpdate(DIRTY_LIST);
+    }
 
+    private void reconcileList() {
         if (mAdapter.getCount() <= 1 && isInViewHierarchy) {
             updateListVisibility();
         }
@@ -460,12 +649,92 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
 
     private void updateFixedList() {
         if (loggingEnabled) Log.d(TAG, "updateFixedList()");
+        if (batchDepth > 0) {
+            batchFixedListChanged = true;
+            return;
+        }
+        precomputeTextLayouts(mAdapterFixed, linearListViewFixed);
+        scheduleFrameUpdate(DIRTY_FIXED_LIST);
+    }
 
+    private void reconcileFixedList() {
         if (mAdapterFixed.getCount() <= 1 && isInViewHierarchy) {
             updateListVisibility();
         }
     }
 
+    /**
+     * Marks parts of the drawer as changed and updates them once on the next frame, however often they change until then
+     */
+    private void scheduleFrameUpdate(int flags) {
+        if ((dirtyFlags & flags) == flags) {
+            coalescedUpdateCount++;
+            return;
+        }
+        dirtyFlags |= flags;
+        if (!frameUpdateScheduled) {
+            frameUpdateScheduled = true;
+            ViewCompat.postOnAnimation(this, frameUpdate);
+        }
+    }
+
+    private void runFrameUpdate() {
+        int flags = dirtyFlags;
+        dirtyFlags = 0;
+        if (loggingEnabled) Log.d(TAG, "runFrameUpdate(" + flags + ")");
+
+        if ((flags & DIRTY_LIST) != 0) {
+            mAdapter.dispatchPendingNotify();
+            reconcileList();
+            executedUpdateCount++;
+        }
+        if ((flags & DIRTY_FIXED_LIST) != 0) {
+            mAdapterFixed.dispatchPendingNotify();
+            reconcileFixedList();
+            executedUpdateCount++;
+        }
+        if ((flags & DIRTY_PROFILE_LIST) != 0) {
+            mProfileAdapter.dispatchPendingNotify();
+            executedUpdateCount++;
+        }
+        if ((flags & DIRTY_PROFILE) != 0) {
+            reconcileProfile();
+            executedUpdateCount++;
+        }
+    }
+
+    /**
+     * Precomputes the text layouts of the rows on screen and of one screen of rows before and after them.
+     * Only flat rows are covered, see {@link DrawerAdapter#precomputeTextLayouts(int, boolean, int, int)}.
+     */
+    private void precomputeTextLayouts(DrawerAdapter adapter, View list) {
+        if (!adapter.isFlatRowsEnabled()) {
+            return;
+        }
+        int rowWidth = list.getWidth();
+        if (rowWidth <= 0 && getLayoutParams() != null) {
+            rowWidth = getLayoutParams().width;
+        }
+
+        int rowHeight = Math.max(1, DrawerMetrics.get(getContext()).getListItemHeight());
+        int height = getHeight() > 0 ? getHeight() : getResources().getDisplayMetrics().heightPixels;
+        int screenRows = height / rowHeight + 1;
+
+        int firstPosition = 0;
+        if (adapter == mAdapter) {
+            if (listVirtualized) {
+                int filteredPosition = listViewVirtualized.getFirstVisiblePosition() - listViewVirtualized.getHeaderViewsCount();
+                if (filteredPosition > 0 && filteredPosition < mAdapter.getFilteredCount()) {
+                    firstPosition = mAdapter.getUnfilteredPosition(filteredPosition);
+                }
+            } else {
+                firstPosition = scrollView.getScrollY() / rowHeight;
+            }
+        }
+        adapter.precomputeTextLayouts(rowWidth, ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL,
+                firstPosition - screenRows, firstPosition + 2 * screenRows);
+    }
+
     private void updateListVisibility() {
         if (loggingEnabled) Log.d(TAG, "updateListVisibility()");
 
@@ -475,7 +744,17 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
             linearListViewProfileList.setVisibility(GONE);
         }
 
-        if (!profileListOpen && mAdapter.getCount() > 0) {
+        if (listVirtualized) {
+            linearListView.setVisibility(GONE);
+
+            ListAdapter virtualizedAdapter = profileListOpen || !listMaterialized ? null : mAdapter.getFilteredAdapter();
+            if (listViewVirtualizedAdapter != virtualizedAdapter) {
+                listViewVirtualizedAdapter = virtualizedAdapter;
+                listViewVirtualizedSpacer.getLayoutParams().height = virtualizedAdapter != null ?
+                        getResources().getDimensionPixelSize(R.dimen.md_drawer_list_margin_vertical) : 0;
+                listViewVirtualized.setAdapter(virtualizedAdapter);
+            }
+        } else if (!profileListOpen && mAdapter.getCount() > 0) {
             linearListView.setVisibility(VISIBLE);
         } else {
             linearListView.setVisibility(GONE);
@@ -496,6 +775,53 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         }
     }
 
+    /**
+     * Tints the profile count badge with a color of the profile background.
+     * The background is read on a background thread, so it is not trimmed until the palette was generated.
+     */
+    private void generateProfilePalette(final DrawerProfile profile) {
+        if (!(profile.getBackground() instanceof BitmapDrawable)) {
+            return;
+        }
+        Integer count = mPaletteProfiles.get(profile);
+        mPaletteProfiles.put(profile, count == null ? 1 : count + 1);
+
+        new Palette.Builder(((BitmapDrawable) profile.getBackground()).getBitmap())
+                .resizeBitmapSize(500)
+                .generate(new Palette.PaletteAsyncListener() {
+                    @Override
+                    public void onGenerated(Palette palette) {
+                        Palette.Swatch vibrantSwatch = palette.getVibrantSwatch();
+                        if (vibrantSwatch != null) {
+                            textViewProfileAvatarCount.setTextColor(vibrantSwatch.getTitleTextColor());
+                            textViewProfileAvatarCount.getBackground().setColorFilter(vibrantSwatch.getRgb(), PorterDuff.Mode.SRC_IN);
+                        }
+
+                        Integer count = mPaletteProfiles.get(profile);
+                        if (count != null && count > 1) {
+                            mPaletteProfiles.put(profile, count - 1);
+                        } else {
+                            mPaletteProfiles.remove(profile);
+                            if (mTrimPendingProfiles.remove(profile) &&
+                                    (mProfileAdapter.getCount() == 0 || profile != mProfileAdapter.getItem(0))) {
+                                profile.trimBackground();
+                            }
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Releases the background of a profile that isn't shown anymore, once no palette is generated from it
+     */
+    private void trimProfileBackground(DrawerProfile profile) {
+        if (mPaletteProfiles.containsKey(profile)) {
+            mTrimPendingProfiles.add(profile);
+        } else {
+            profile.trimBackground();
+        }
+    }
+
     private void animateToProfile(DrawerProfile profile) {
         if (loggingEnabled) Log.d(TAG, "animateToProfile(*" + profile.getId() + ")");
 
@@ -505,6 +831,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
 
             final DrawerProfile oldProfile = mProfileAdapter.getItem(0);
             final DrawerProfile newProfile = profile;
+            newProfile.restoreBackground();
 
             boolean isRtl = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 &&
                     TextUtilsCompat.getLayoutDirectionFromLocale(Locale.getDefault()) == LAYOUT_DIRECTION_RTL;
@@ -541,26 +868,18 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
                 public void onAnimationEnd(Animator animation) {
                     imageViewProfileBackground.setImageDrawable(newProfile.getBackground());
 
-                    if (newProfile.getBackground() instanceof BitmapDrawable) {
-                        new Palette.Builder(((BitmapDrawable) newProfile.getBackground()).getBitmap())
-                                .resizeBitmapSize(500)
-                                .generate(new Palette.PaletteAsyncListener() {
-                                    @Override
-                                    public void onGenerated(Palette palette) {
-                                        Palette.Swatch vibrantSwatch = palette.getVibrantSwatch();
-                                        if (vibrantSwatch != null) {
-                                            textViewProfileAvatarCount.setTextColor(vibrantSwatch.getTitleTextColor());
-                                            textViewProfileAvatarCount.getBackground().setColorFilter(vibrantSwatch.getRgb(), PorterDuff.Mode.SRC_IN);
-                                        }
-                                    }
-                                });
-                    }
+                    generateProfilePalette(newProfile);
 
                     imageViewProfileBackgroundOverlay.setVisibility(GONE);
 
                     if (hasOnProfileSwitchListener()) {
                         onProfileSwitchListener.onSwitch(oldProfile, oldProfile.getId(), newProfile, newProfile.getId());
                     }
+
+                    // The old background isn't shown anymore, so its memory can be reused for the next decode
+                    if (oldProfile != newProfile && oldProfile.getBackground() != newProfile.getBackground()) {
+                        trimProfileBackground(oldProfile);
+                    }
                 }
 
                 @Override
@@ -838,7 +1157,9 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
             set.addListener(new Animator.AnimatorListener() {
                 @Override
                 public void onAnimationStart(Animator animation) {
-                    linearListView.setVisibility(VISIBLE);
+                    if (!listVirtualized) {
+                        linearListView.setVisibility(VISIBLE);
+                    }
                     imageViewOpenProfileListIcon.setClickable(false);
                 }
 
@@ -865,6 +1186,21 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         }
     }
 
+    private void onListItemClick(int position) {
+        DrawerItem item = mAdapter.getItem(position);
+        if (item instanceof DrawerGroupItem) {
+            ((DrawerGroupItem) item).toggleExpanded();
+        } else if (!item.isHeader() && !(item instanceof DrawerPlaceholderItem)) {
+            if (item.hasOnItemClickListener()) {
+                item.getOnItemClickListener().onClick(item, item.getId(), position);
+            } else {
+                if (hasOnItemClickListener()) {
+                    mOnItemClickListener.onClick(item, item.getId(), position);
+                }
+            }
+        }
+    }
+
     /**
      * Gets whether debug logging is enabled
      */
@@ -882,6 +1218,220 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         return this;
     }
 
+    /**
+     * Gets the pool rows are taken from before they are inflated
+     *
+     * @return The row pool or {@code null} if rows are always inflated
+     */
+    public DrawerRowPool getRowPool() {
+        return mAdapter.getRowPool();
+    }
+
+    /**
+     * Sets a pool of rows that were inflated on a background thread ahead of time.
+     * Item, fixed item and profile rows are taken from the pool before they are inflated on the main thread.
+     *
+     * @param rowPool Pool to use or {@code null} to always inflate rows
+     */
+    public DrawerView setRowPool(DrawerRowPool rowPool) {
+        mAdapter.setRowPool(rowPool);
+        mAdapterFixed.setRowPool(rowPool);
+        mProfileAdapter.setRowPool(rowPool);
+        return this;
+    }
+
+    /**
+     * Gets whether items are displayed as flat rows
+     *
+     * @return True if supported items are drawn by a single view each, false otherwise.
+     */
+    public boolean isFlatRowsEnabled() {
+        return mAdapter.isFlatRowsEnabled();
+    }
+
+    /**
+     * Sets whether items and fixed items should be displayed as flat rows.
+     * A flat row draws the image and texts of an item in a single view instead of inflating a layout with four views,
+     * which makes large menus faster to measure and lay out. Items in three line text mode always use the inflated layout.
+     * The texts of flat rows are laid out on a background thread as items are added, the texts of inflated rows are not.
+     *
+     * @param flatRowsEnabled True to draw supported items in a single view each, false to inflate all rows.
+     */
+    public DrawerView setFlatRowsEnabled(boolean flatRowsEnabled) {
+        if (loggingEnabled) Log.d(TAG, "setFlatRowsEnabled(" + flatRowsEnabled + ")");
+        beginBatch();
+        try {
+            mAdapter.setFlatRowsEnabled(flatRowsEnabled);
+            mAdapterFixed.setFlatRowsEnabled(flatRowsEnabled);
+            updateList();
+            updateFixedList();
+        } finally {
+            commitBatch();
+        }
+        return this;
+    }
+
+    /**
+     * Gets whether the item list is virtualized
+     *
+     * @return True if only the visible items are bound, false otherwise.
+     */
+    public boolean isListVirtualized() {
+        return listVirtualized;
+    }
+
+    /**
+     * Sets whether the item list should be virtualized.
+     * A virtualized list only creates views for the visible items and recycles them while scrolling,
+     * so large menus don't need to inflate every row before the drawer can open.
+     *
+     * @param listVirtualized True to bind only the visible items, false to bind all items at once.
+     */
+    public DrawerView setListVirtualized(boolean listVirtualized) {
+        if (loggingEnabled) Log.d(TAG, "setListVirtualized(" + listVirtualized + ")");
+        if (this.listVirtualized == listVirtualized) {
+            return this;
+        }
+        this.listVirtualized = listVirtualized;
+
+        if (listVirtualized) {
+            // A ListView has to be notified of changes before its next layout, so they are not deferred to the next frame
+            mAdapter.setNotifyScheduler(null);
+            linearListView.setAdapter(null);
+
+            /* Move the profile header into the list so it scrolls together with the items. */
+            scrollView.removeView(layout);
+            layout.setLayoutParams(new AbsListView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            listViewVirtualized.addHeaderView(layout, null, false);
+            listViewVirtualized.addHeaderView(listViewVirtualizedSpacer, null, false);
+
+            scrollView.setVisibility(GONE);
+            listViewVirtualized.setVisibility(VISIBLE);
+        } else {
+            listViewVirtualizedAdapter = null;
+            listViewVirtualized.setAdapter(null);
+            listViewVirtualized.removeHeaderView(listViewVirtualizedSpacer);
+            listViewVirtualized.removeHeaderView(layout);
+            layout.setLayoutParams(new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            scrollView.addView(layout);
+
+            if (listMaterialized) {
+                linearListView.setAdapter(mAdapter);
+            }
+            mAdapter.setNotifyScheduler(notifyScheduler);
+
+            listViewVirtualized.setVisibility(GONE);
+            scrollView.setVisibility(VISIBLE);
+        }
+
+        updateListVisibility();
+        return this;
+    }
+
+    /**
+     * Gets the number of updates that were merged into an update already scheduled for the next frame
+     *
+     * @return Number of coalesced updates since the counters were reset
+     */
+    public long getCoalescedUpdateCount() {
+        return coalescedUpdateCount;
+    }
+
+    /**
+     * Gets the number of updates of the item list, the fixed item list, the profile list or the profile header that were executed.
+     * Changes are collected and each of these parts is updated at most once per frame.
+     *
+     * @return Number of executed updates since the counters were reset
+     */
+    public long getExecutedUpdateCount() {
+        return executedUpdateCount;
+    }
+
+    /**
+     * Resets the coalesced and executed update counters
+     */
+    public DrawerView resetUpdateCounters() {
+        coalescedUpdateCount = 0;
+        executedUpdateCount = 0;
+        return this;
+    }
+
+    /**
+     * Gets whether creating the item rows is deferred
+     *
+     * @return True if rows are only created once the drawer starts opening or the main thread is idle, false otherwise.
+     */
+    public boolean isListDeferred() {
+        return listDeferred;
+    }
+
+    /**
+     * Sets whether creating the item and fixed item rows should be deferred.
+     * While deferred, adding items only records them and no rows are inflated or bound.
+     * The rows are created when the drawer starts sliding, when the main thread is idle for the first time
+     * or when {@link #materializeList()} is called, which keeps the cost out of the activity startup.
+     * Has no effect if the rows have already been created.
+     *
+     * @param listDeferred True to defer creating rows, false to create them immediately.
+     */
+    public DrawerView setListDeferred(boolean listDeferred) {
+        if (loggingEnabled) Log.d(TAG, "setListDeferred(" + listDeferred + ")");
+        if (this.listDeferred == listDeferred) {
+            return this;
+        }
+        this.listDeferred = listDeferred;
+
+        if (!listDeferred) {
+            materializeList();
+        } else if (mAdapter.isEmpty() && mAdapterFixed.isEmpty()) {
+            listMaterialized = false;
+            linearListView.setAdapter(null);
+            linearListViewFixed.setAdapter(null);
+            updateListVisibility();
+            queueMaterializeIdleHandler();
+        }
+        return this;
+    }
+
+    /**
+     * Gets whether the item rows have been created
+     *
+     * @return True if the item and fixed item rows exist, false if creating them is still deferred.
+     */
+    public boolean isListMaterialized() {
+        return listMaterialized;
+    }
+
+    /**
+     * Creates the item and fixed item rows now if creating them was deferred
+     */
+    public DrawerView materializeList() {
+        if (listMaterialized) {
+            return this;
+        }
+        if (loggingEnabled) Log.d(TAG, "materializeList()");
+        listMaterialized = true;
+
+        if (idleHandlerQueued) {
+            Looper.myQueue().removeIdleHandler(materializeIdleHandler);
+            idleHandlerQueued = false;
+        }
+
+        if (!listVirtualized) {
+            linearListView.setAdapter(mAdapter);
+        }
+        linearListViewFixed.setAdapter(mAdapterFixed);
+        updateListVisibility();
+        return this;
+    }
+
+    private void queueMaterializeIdleHandler() {
+        if (!listMaterialized && !idleHandlerQueued && ViewCompat.isAttachedToWindow(this)) {
+            Looper.myQueue().addIdleHandler(materializeIdleHandler);
+            idleHandlerQueued = true;
+        }
+    }
+
     /**
      * Resets the drawer theme
      */
@@ -947,6 +1497,60 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         return this;
     }
 
+    /**
+     * Starts a batch of changes to the drawer view.
+     * Item, fixed item and profile changes made until the matching {@link #commitBatch()} are applied
+     * with a single notification and layout pass. Batches can be nested.
+     * Call {@link #commitBatch()} in a {@code finally} block, as changes are held back until every batch is committed.
+     */
+    public DrawerView beginBatch() {
+        if (loggingEnabled) Log.d(TAG, "beginBatch()");
+        if (batchDepth++ == 0) {
+            mAdapter.beginBatch();
+            mAdapterFixed.beginBatch();
+            mProfileAdapter.beginBatch();
+        }
+        return this;
+    }
+
+    /**
+     * Applies all changes made since the matching {@link #beginBatch()}
+     */
+    public DrawerView commitBatch() {
+        if (loggingEnabled) Log.d(TAG, "commitBatch()");
+        if (batchDepth <= 0) {
+            throw new IllegalStateException("commitBatch() called without beginBatch().");
+        }
+        if (--batchDepth == 0) {
+            mAdapter.endBatch();
+            mAdapterFixed.endBatch();
+            mProfileAdapter.endBatch();
+
+            if (batchListChanged) {
+                batchListChanged = false;
+                updateList();
+            }
+            if (batchFixedListChanged) {
+                batchFixedListChanged = false;
+                updateFixedList();
+            }
+            if (batchProfileChanged) {
+                batchProfileChanged = false;
+                updateProfile();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Gets whether a batch of changes is in progress
+     *
+     * @return True if {@link #beginBatch()} was called without a matching {@link #commitBatch()}, false otherwise.
+     */
+    public boolean isInBatch() {
+        return batchDepth > 0;
+    }
+
     /**
      * Adds a profile to the drawer view
      *
@@ -956,11 +1560,9 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         if (profile.getId() <= 0) {
             profile.setId(System.nanoTime() * 100 + Math.round(Math.random() * 100));
         }
-        for (DrawerProfile oldProfile : mProfileAdapter.getItems()) {
-            if (oldProfile.getId() == profile.getId()) {
-                mProfileAdapter.remove(oldProfile);
-                break;
-            }
+        DrawerProfile oldProfile = mProfileAdapter.findById(profile.getId());
+        if (oldProfile != null) {
+            mProfileAdapter.remove(oldProfile);
         }
         profile.attachTo(this);
         mProfileAdapter.add(profile);
@@ -974,7 +1576,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
     /**
      * Gets all profiles from the drawer view
      *
-     * @return Profiles from the drawer view
+     * @return Unmodifiable list of the profiles from the drawer view
      */
     public List<DrawerProfile> getProfiles() {
         return mProfileAdapter.getItems();
@@ -987,12 +1589,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @return Profile from the drawer view
      */
     public DrawerProfile findProfileById(long id) {
-        for (DrawerProfile profile : mProfileAdapter.getItems()) {
-            if (profile.getId() == id) {
-                return profile;
-            }
-        }
-        return null;
+        return mProfileAdapter.findById(id);
     }
 
     /**
@@ -1001,7 +1598,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param profile The profile
      */
     public DrawerView selectProfile(DrawerProfile profile) {
-        if (mProfileAdapter.getItems().contains(profile)) {
+        if (mProfileAdapter.findById(profile.getId()) == profile) {
             DrawerProfile oldProfile = mProfileAdapter.getItem(0);
 
             if (mProfileAdapter.getCount() > 1) {
@@ -1028,11 +1625,9 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param id The profile ID
      */
     public DrawerView selectProfileById(long id) {
-        for (DrawerProfile profile : mProfileAdapter.getItems()) {
-            if (profile.getId() == id) {
-                selectProfile(profile);
-                return this;
-            }
+        DrawerProfile profile = mProfileAdapter.findById(id);
+        if (profile != null) {
+            selectProfile(profile);
         }
         return this;
     }
@@ -1055,17 +1650,31 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param id ID to remove
      */
     public DrawerView removeProfileById(long id) {
-        for (DrawerProfile profile : mProfileAdapter.getItems()) {
-            if (profile.getId() == id) {
-                profile.detach();
-                mProfileAdapter.remove(profile);
-                updateProfile();
-                return this;
-            }
+        DrawerProfile profile = mProfileAdapter.findById(id);
+        if (profile != null) {
+            profile.detach();
+            mProfileAdapter.remove(profile);
+            updateProfile();
         }
         return this;
     }
 
+    /**
+     * Updates the profile list and, if the profile is the active one, the profile header after a profile changed.
+     * A changed profile ID is updated in the profile ID index.
+     *
+     * @param profile The changed profile
+     */
+    public void onProfileChanged(DrawerProfile profile) {
+        if (mProfileAdapter.findById(profile.getId()) != profile && !mProfileAdapter.onIdChanged(profile)) {
+            return;
+        }
+        mProfileAdapter.notifyDataSetChanged();
+        if (mProfileAdapter.getItem(0) == profile) {
+            updateProfile();
+        }
+    }
+
     /**
      * Removes all profiles from the drawer view
      */
@@ -1078,6 +1687,68 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         return this;
     }
 
+    /**
+     * Replaces all profiles of the drawer view.
+     * The changes are calculated by profile ID on a background thread and applied at once.
+     * The current profile stays selected if it is still contained.
+     *
+     * @param profiles Profiles to set
+     */
+    public DrawerView setProfiles(List<DrawerProfile> profiles) {
+        if (loggingEnabled) Log.d(TAG, "setProfiles()");
+        final List<DrawerProfile> newProfiles = new ArrayList<>(profiles.size());
+        LongSparseArray<DrawerProfile> profilesById = new LongSparseArray<>(profiles.size());
+        for (DrawerProfile profile : profiles) {
+            if (profile.getId() <= 0) {
+                profile.setId(System.nanoTime() * 100 + Math.round(Math.random() * 100));
+            }
+            if (profilesById.get(profile.getId()) != null) {
+                throw new IllegalArgumentException("Duplicate profile ID " + profile.getId() + ".");
+            }
+            profilesById.put(profile.getId(), profile);
+            newProfiles.add(profile);
+        }
+        if (mProfileAdapter.getCount() > 0) {
+            DrawerProfile currentProfile = profilesById.get(mProfileAdapter.getItem(0).getId());
+            if (currentProfile != null) {
+                newProfiles.remove(currentProfile);
+                newProfiles.add(0, currentProfile);
+            }
+        }
+
+        final int generation = ++profilesGeneration;
+        DrawerDiff.calculateAsync(mProfileAdapter.getItems(), newProfiles, DrawerProfileAdapter.DIFF_CALLBACK, new DrawerDiff.OnCalculatedListener<DrawerProfile>() {
+            @Override
+            public void onCalculated(DrawerDiff<DrawerProfile> diff) {
+                if (generation != profilesGeneration) {
+                    return;
+                }
+                if (diff.getOldList() != mProfileAdapter.getItems()) {
+                    // Profiles changed while calculating
+                    setProfiles(newProfiles);
+                    return;
+                }
+
+                beginBatch();
+                try {
+                    for (DrawerProfile profile : diff.getNewList()) {
+                        profile.attachTo(DrawerView.this);
+                    }
+                    diff.dispatchTo(mProfileAdapter);
+                    for (DrawerProfile profile : diff.getOldList()) {
+                        if (mProfileAdapter.findById(profile.getId()) != profile) {
+                            profile.detach();
+                        }
+                    }
+                    updateProfile();
+                } finally {
+                    commitBatch();
+                }
+            }
+        });
+        return this;
+    }
+
     /**
      * Gets the profile click listener of the drawer
      *
@@ -1157,24 +1828,14 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param items Items to add
      */
     public DrawerView addItems(List<DrawerItem> items) {
-        mAdapter.setNotifyOnChange(false);
-        for (DrawerItem item : items) {
-            if (item.getId() <= 0) {
-                item.setId(System.nanoTime() * 100 + Math.round(Math.random() * 100));
-            }
-            for (DrawerItem oldItem : mAdapter.getItems()) {
-                if (oldItem.getId() == item.getId()) {
-                    mAdapter.remove(oldItem);
-                    break;
-                }
+        beginBatch();
+        try {
+            for (DrawerItem item : items) {
+                addItem(item);
             }
-
-            item.attachTo(mAdapter);
-            mAdapter.add(item);
+        } finally {
+            commitBatch();
         }
-        mAdapter.setNotifyOnChange(true);
-        mAdapter.notifyDataSetChanged();
-        updateList();
         return this;
     }
 
@@ -1184,24 +1845,14 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param items Items to add
      */
     public DrawerView addItems(DrawerItem... items) {
-        mAdapter.setNotifyOnChange(false);
-        for (DrawerItem item : items) {
-            if (item.getId() <= 0) {
-                item.setId(System.nanoTime() * 100 + Math.round(Math.random() * 100));
+        beginBatch();
+        try {
+            for (DrawerItem item : items) {
+                addItem(item);
             }
-            for (DrawerItem oldItem : mAdapter.getItems()) {
-                if (oldItem.getId() == item.getId()) {
-                    mAdapter.remove(oldItem);
-                    break;
-                }
-            }
-
-            item.attachTo(mAdapter);
-            mAdapter.add(item);
+        } finally {
+            commitBatch();
         }
-        mAdapter.setNotifyOnChange(true);
-        mAdapter.notifyDataSetChanged();
-        updateList();
         return this;
     }
 
@@ -1214,15 +1865,16 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         if (item.getId() <= 0) {
             item.setId(System.nanoTime() * 100 + Math.round(Math.random() * 100));
         }
-        for (DrawerItem oldItem : mAdapter.getItems()) {
-            if (oldItem.getId() == item.getId()) {
-                mAdapter.remove(oldItem);
-                break;
-            }
+        DrawerItem oldItem = mAdapter.findById(item.getId());
+        if (oldItem != null) {
+            removeFromAdapter(mAdapter, oldItem);
         }
 
         item.attachTo(mAdapter);
         mAdapter.add(item);
+        if (item instanceof DrawerGroupItem && ((DrawerGroupItem) item).isExpanded()) {
+            mAdapter.showGroupChildren((DrawerGroupItem) item);
+        }
         updateList();
         return this;
     }
@@ -1238,7 +1890,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
     /**
      * Gets all items from the drawer view
      *
-     * @return Items from the drawer view
+     * @return Unmodifiable list of the items from the drawer view
      */
     public List<DrawerItem> getItems() {
         return mAdapter.getItems();
@@ -1261,12 +1913,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @return Item from the drawer view
      */
     public DrawerItem findItemById(long id) {
-        for (DrawerItem item : mAdapter.getItems()) {
-            if (item.getId() == id) {
-                return item;
-            }
-        }
-        return null;
+        return mAdapter.findById(id);
     }
 
     /**
@@ -1297,12 +1944,9 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
     public DrawerView selectItemById(long id) {
         mAdapterFixed.clearSelection();
 
-        int count = mAdapter.getCount();
-        for (int i = 0; i < count; i++) {
-            if (mAdapter.getItem(i).getId() == id) {
-                mAdapter.select(i);
-                return this;
-            }
+        DrawerItem item = mAdapter.findById(id);
+        if (item != null) {
+            mAdapter.select(mAdapter.getPosition(item));
         }
         return this;
     }
@@ -1313,8 +1957,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param item Item to remove
      */
     public DrawerView removeItem(DrawerItem item) {
-        item.detach();
-        mAdapter.remove(item);
+        removeFromAdapter(mAdapter, item);
         updateList();
         return this;
     }
@@ -1325,8 +1968,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param position Position to remove
      */
     public DrawerView removeItem(int position) {
-        mAdapter.getItem(position).detach();
-        mAdapter.remove(mAdapter.getItem(position));
+        removeFromAdapter(mAdapter, mAdapter.getItem(position));
         updateList();
         return this;
     }
@@ -1337,12 +1979,10 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param id ID to remove
      */
     public DrawerView removeItemById(long id) {
-        for (DrawerItem item : mAdapter.getItems()) {
-            if (item.getId() == id) {
-                mAdapter.remove(item);
-                updateList();
-                return this;
-            }
+        DrawerItem item = mAdapter.findById(id);
+        if (item != null) {
+            removeFromAdapter(mAdapter, item);
+            updateList();
         }
         return this;
     }
@@ -1351,6 +1991,9 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * Removes all items from the drawer view
      */
     public DrawerView clearItems() {
+        if (mAdapter.getItemSource() != null) {
+            mAdapter.setItemSource(null, DrawerAdapter.DEFAULT_PAGE_SIZE, 0);
+        }
         for (DrawerItem item : mAdapter.getItems()) {
             item.detach();
         }
@@ -1359,6 +2002,105 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         return this;
     }
 
+    /**
+     * Replaces all items of the drawer view.
+     * The changes are calculated by item ID on a background thread and applied at once.
+     * Rows of unchanged items are kept and the selected item stays selected if it is still contained.
+     *
+     * @param items Items to set
+     */
+    public DrawerView setItems(List<DrawerItem> items) {
+        if (loggingEnabled) Log.d(TAG, "setItems()");
+        if (mAdapter.getItemSource() != null) {
+            mAdapter.setItemSource(null, DrawerAdapter.DEFAULT_PAGE_SIZE, 0);
+        }
+        final List<DrawerItem> newItems = prepareItems(items);
+        final int generation = ++itemsGeneration;
+        DrawerDiff.calculateAsync(mAdapter.getItems(), newItems, DrawerAdapter.DIFF_CALLBACK, new DrawerDiff.OnCalculatedListener<DrawerItem>() {
+            @Override
+            public void onCalculated(DrawerDiff<DrawerItem> diff) {
+                if (generation != itemsGeneration) {
+                    return;
+                }
+                if (diff.getOldList() != mAdapter.getItems()) {
+                    // Items changed while calculating
+                    setItems(newItems);
+                    return;
+                }
+                applyItemDiff(mAdapter, diff, false);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Replaces all items of the drawer view with the items of a source, loaded in pages of {@link DrawerAdapter#DEFAULT_PAGE_SIZE} items
+     *
+     * @param source Source to load items from or {@code null} to remove all items
+     */
+    public DrawerView setItemSource(DrawerItemSource source) {
+        return setItemSource(source, DrawerAdapter.DEFAULT_PAGE_SIZE, DrawerAdapter.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Replaces all items of the drawer view with the items of a source.
+     * Items are loaded page by page on a background thread as their rows are bound, rows of items that are still loading show a placeholder.
+     * This works best with a virtualized list, see {@link #setListVirtualized(boolean)}, as otherwise all rows are bound at once.
+     * Setting or clearing items removes the source.
+     *
+     * @param source           Source to load items from or {@code null} to remove all items
+     * @param pageSize         Number of items to load at once
+     * @param prefetchDistance Number of rows before and after a bound row whose pages should be loaded as well
+     */
+    public DrawerView setItemSource(DrawerItemSource source, int pageSize, int prefetchDistance) {
+        if (loggingEnabled) Log.d(TAG, "setItemSource(" + pageSize + ", " + prefetchDistance + ")");
+        itemsGeneration++;
+        mAdapter.setItemSource(source, pageSize, prefetchDistance);
+        updateList();
+        return this;
+    }
+
+    /**
+     * Gets the source items are loaded from
+     *
+     * @return The source or {@code null} if the items were added directly
+     */
+    public DrawerItemSource getItemSource() {
+        return mAdapter.getItemSource();
+    }
+
+    /**
+     * Shows only the items whose primary or secondary text contains words starting with the words of a query, ignoring case and accents.
+     * Fixed items are not filtered. Typing more characters narrows down the previous matches instead of searching all items again
+     * and only the rows that appear or disappear are laid out again.
+     *
+     * @param query The query or {@code null} to show all items
+     */
+    public DrawerView setFilter(CharSequence query) {
+        if (loggingEnabled) Log.d(TAG, "setFilter(" + query + ")");
+        mAdapter.setFilter(query);
+        if (!listVirtualized) {
+            linearListView.refreshRowVisibility();
+        }
+        return this;
+    }
+
+    /**
+     * Gets the current filter query
+     *
+     * @return The query or {@code null} if all items are shown
+     */
+    public String getFilter() {
+        return mAdapter.getFilter();
+    }
+
+    /**
+     * Shows all items again
+     */
+    public DrawerView clearFilter() {
+        return setFilter(null);
+    }
+
     /**
      * Gets the item click listener of the drawer view
      *
@@ -1402,24 +2144,14 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param items Items to add
      */
     public DrawerView addFixedItems(List<DrawerItem> items) {
-        mAdapterFixed.setNotifyOnChange(false);
-        for (DrawerItem item : items) {
-            if (item.getId() <= 0) {
-                item.setId(System.nanoTime() * 100 + Math.round(Math.random() * 100));
+        beginBatch();
+        try {
+            for (DrawerItem item : items) {
+                addFixedItem(item);
             }
-            for (DrawerItem oldItem : mAdapterFixed.getItems()) {
-                if (oldItem.getId() == item.getId()) {
-                    mAdapterFixed.remove(oldItem);
-                    break;
-                }
-            }
-
-            item.attachTo(mAdapterFixed);
-            mAdapterFixed.add(item);
+        } finally {
+            commitBatch();
         }
-        mAdapterFixed.setNotifyOnChange(true);
-        mAdapterFixed.notifyDataSetChanged();
-        updateFixedList();
         return this;
     }
 
@@ -1429,24 +2161,14 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param items Items to add
      */
     public DrawerView addFixedItems(DrawerItem... items) {
-        mAdapterFixed.setNotifyOnChange(false);
-        for (DrawerItem item : items) {
-            if (item.getId() <= 0) {
-                item.setId(System.nanoTime() * 100 + Math.round(Math.random() * 100));
-            }
-            for (DrawerItem oldItem : mAdapterFixed.getItems()) {
-                if (oldItem.getId() == item.getId()) {
-                    mAdapterFixed.remove(oldItem);
-                    break;
-                }
+        beginBatch();
+        try {
+            for (DrawerItem item : items) {
+                addFixedItem(item);
             }
-
-            item.attachTo(mAdapterFixed);
-            mAdapterFixed.add(item);
+        } finally {
+            commitBatch();
         }
-        mAdapterFixed.setNotifyOnChange(true);
-        mAdapterFixed.notifyDataSetChanged();
-        updateFixedList();
         return this;
     }
 
@@ -1459,15 +2181,16 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         if (item.getId() <= 0) {
             item.setId(System.nanoTime() * 100 + Math.round(Math.random() * 100));
         }
-        for (DrawerItem oldItem : mAdapterFixed.getItems()) {
-            if (oldItem.getId() == item.getId()) {
-                mAdapterFixed.remove(oldItem);
-                break;
-            }
+        DrawerItem oldItem = mAdapterFixed.findById(item.getId());
+        if (oldItem != null) {
+            removeFromAdapter(mAdapterFixed, oldItem);
         }
 
         item.attachTo(mAdapterFixed);
         mAdapterFixed.add(item);
+        if (item instanceof DrawerGroupItem && ((DrawerGroupItem) item).isExpanded()) {
+            mAdapterFixed.showGroupChildren((DrawerGroupItem) item);
+        }
         updateFixedList();
         return this;
     }
@@ -1483,7 +2206,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
     /**
      * Gets all fixed items from the drawer view
      *
-     * @return Items from the drawer view
+     * @return Unmodifiable list of the fixed items from the drawer view
      */
     public List<DrawerItem> getFixedItems() {
         return mAdapterFixed.getItems();
@@ -1506,12 +2229,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @return Item from the drawer view
      */
     public DrawerItem findFixedItemById(long id) {
-        for (DrawerItem item : mAdapterFixed.getItems()) {
-            if (item.getId() == id) {
-                return item;
-            }
-        }
-        return null;
+        return mAdapterFixed.findById(id);
     }
 
     /**
@@ -1542,12 +2260,9 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
     public DrawerView selectFixedItemById(long id) {
         mAdapter.clearSelection();
 
-        int count = mAdapterFixed.getCount();
-        for (int i = 0; i < count; i++) {
-            if (mAdapterFixed.getItem(i).getId() == id) {
-                mAdapterFixed.select(i);
-                return this;
-            }
+        DrawerItem item = mAdapterFixed.findById(id);
+        if (item != null) {
+            mAdapterFixed.select(mAdapterFixed.getPosition(item));
         }
         return this;
     }
@@ -1558,8 +2273,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param item Item to remove
      */
     public DrawerView removeFixedItem(DrawerItem item) {
-        item.detach();
-        mAdapterFixed.remove(item);
+        removeFromAdapter(mAdapterFixed, item);
         updateFixedList();
         return this;
     }
@@ -1570,8 +2284,7 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param position Position to remove
      */
     public DrawerView removeFixedItem(int position) {
-        mAdapterFixed.getItem(position).detach();
-        mAdapterFixed.remove(mAdapterFixed.getItem(position));
+        removeFromAdapter(mAdapterFixed, mAdapterFixed.getItem(position));
         updateFixedList();
         return this;
     }
@@ -1582,12 +2295,10 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
      * @param id ID to remove
      */
     public DrawerView removeFixedItemById(long id) {
-        for (DrawerItem item : mAdapterFixed.getItems()) {
-            if (item.getId() == id) {
-                mAdapterFixed.remove(item);
-                updateFixedList();
-                return this;
-            }
+        DrawerItem item = mAdapterFixed.findById(id);
+        if (item != null) {
+            removeFromAdapter(mAdapterFixed, item);
+            updateFixedList();
         }
         return this;
     }
@@ -1604,6 +2315,34 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         return this;
     }
 
+    /**
+     * Replaces all fixed items of the drawer view.
+     * The changes are calculated by item ID on a background thread and applied at once.
+     * Rows of unchanged items are kept and the selected item stays selected if it is still contained.
+     *
+     * @param items Items to set
+     */
+    public DrawerView setFixedItems(List<DrawerItem> items) {
+        if (loggingEnabled) Log.d(TAG, "setFixedItems()");
+        final List<DrawerItem> newItems = prepareItems(items);
+        final int generation = ++fixedItemsGeneration;
+        DrawerDiff.calculateAsync(mAdapterFixed.getItems(), newItems, DrawerAdapter.DIFF_CALLBACK, new DrawerDiff.OnCalculatedListener<DrawerItem>() {
+            @Override
+            public void onCalculated(DrawerDiff<DrawerItem> diff) {
+                if (generation != fixedItemsGeneration) {
+                    return;
+                }
+                if (diff.getOldList() != mAdapterFixed.getItems()) {
+                    // Items changed while calculating
+                    setFixedItems(newItems);
+                    return;
+                }
+                applyItemDiff(mAdapterFixed, diff, true);
+            }
+        });
+        return this;
+    }
+
     /**
      * Gets the fixed item click listener of the drawer view
      *
@@ -1650,6 +2389,21 @@ public class DrawerView extends ScrimInsetsFrameLayout implements ScrimInsetsFra
         }
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        queueMaterializeIdleHandler();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (idleHandlerQueued) {
+            Looper.myQueue().removeIdleHandler(materializeIdleHandler);
+            idleHandlerQueued = false;
+        }
+        super.onDetachedFromWindow();
+    }
+
     @Override
     protected void onSizeChanged(int w, int h, int oldW, int oldH) {
         if (loggingEnabled)
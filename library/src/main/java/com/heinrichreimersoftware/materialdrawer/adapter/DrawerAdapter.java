@@ -25,10 +25,14 @@
 package com.heinrichreimersoftware.materialdrawer.adapter;
 
 import android.content.Context;
+import android.graphics.Color;
 import android.graphics.PorterDuff;
 import android.os.Build;
+import android.support.annotation.LayoutRes;
 import android.support.annotation.NonNull;
-import android.support.v4.content.ContextCompat;
+import android.support.annotation.Nullable;
+import android.support.v4.util.LongSparseArray;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -36,54 +40,155 @@ import android.widget.ArrayAdapter;
 import android.widget.FrameLayout;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
-import android.widget.RelativeLayout;
+import android.widget.ListAdapter;
 import android.widget.TextView;
 
 import com.heinrichreimersoftware.materialdrawer.R;
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerGroupItem;
 import com.heinrichreimersoftware.materialdrawer.structure.DrawerHeaderItem;
 import com.heinrichreimersoftware.materialdrawer.structure.DrawerItem;
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerPlaceholderItem;
 import com.heinrichreimersoftware.materialdrawer.theme.DrawerTheme;
+import com.heinrichreimersoftware.materialdrawer.widget.DrawerItemView;
+import com.heinrichreimersoftware.materialdrawer.widget.DrawerTextLayouts;
+import com.heinrichreimersoftware.materialdrawer.widget.LinearListView;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * Adapter to be used with {@link com.heinrichreimersoftware.materialdrawer.DrawerView} to display a list of drawer items.
  */
-public class DrawerAdapter extends ArrayAdapter<DrawerItem> {
+public class DrawerAdapter extends ArrayAdapter<DrawerItem> implements LinearListView.PartialBindAdapter, LinearListView.RowFilterAdapter {
+
+    public static final int VIEW_TYPE_HEADER = 0;
+    public static final int VIEW_TYPE_ITEM = 1;
+    public static final int VIEW_TYPE_FLAT_ITEM = 2;
+
+    /**
+     * The primary or secondary text or the text mode of an item changed
+     */
+    public static final int PAYLOAD_TEXT = 1;
+    /**
+     * The image or the image mode of an item changed
+     */
+    public static final int PAYLOAD_IMAGE = 1 << 1;
+    /**
+     * The selection state of an item changed, so its highlight text color and icon tint have to be updated
+     */
+    public static final int PAYLOAD_TINT = 1 << 2;
+    /**
+     * The theme of an item changed
+     */
+    public static final int PAYLOAD_THEME = 1 << 3;
+    public static final int PAYLOAD_ALL = PAYLOAD_TEXT | PAYLOAD_IMAGE | PAYLOAD_TINT | PAYLOAD_THEME;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Compares drawer items by their IDs and by everything that is displayed in their rows
+     */
+    public static final DrawerDiff.Callback<DrawerItem> DIFF_CALLBACK = new DrawerDiff.Callback<DrawerItem>() {
+        @Override
+        public long getId(DrawerItem item) {
+            return item.getId();
+        }
+
+        /**
+         * Themes and images are compared by identity, as neither defines equality
+         */
+        @Override
+        public Object getContents(DrawerItem item) {
+            return Arrays.asList(item.getClass(), item.isHeader(), item.getDrawerTheme(), item.getImage(), item.getImageMode(),
+                    item.getTextPrimary(), item.getTextSecondary(), item.getTextMode());
+        }
+    };
+
+    private final List<LinearListView.ItemObserver> itemObservers = new ArrayList<>();
 
     private int selectedPosition = -1;
 
+    private boolean flatRowsEnabled = false;
+
+    private final List<DrawerItem> dataSet;
+    private final LongSparseArray<DrawerItem> itemsById = new LongSparseArray<>();
+    private List<DrawerItem> itemsSnapshot;
+    private DrawerPositionIndex positionIndex;
+
+    private DrawerRowPool rowPool;
+
+    private DrawerItemPager pager;
+
+    private DrawerFilterIndex filterIndex;
+    private String filter;
+    private String[] filterWords;
+    private Set<DrawerItem> filterMatches;
+    private int[] filteredPositions;
+    private DrawerFilterAdapter filteredAdapter;
+
+    private int batchDepth = 0;
+    private boolean batchChanged = false;
+
+    private NotifyScheduler notifyScheduler;
+    private boolean notifyPending = false;
+
     private DrawerTheme drawerTheme;
 
     public DrawerAdapter(Context context, List<DrawerItem> dataSet) {
         super(context, R.layout.md_drawer_item, dataSet);
+        this.dataSet = dataSet;
+        for (DrawerItem item : dataSet) {
+            itemsById.put(item.getId(), item);
+        }
     }
 
     @NonNull
     @Override
     public View getView(int position, View convertView, @NonNull ViewGroup parent) {
+        if (pager != null) {
+            pager.onBind(position);
+        }
+        return bindView(position, convertView, parent, PAYLOAD_ALL);
+    }
+
+    @Override
+    public int getCount() {
+        return dataSet.size() + (pager != null ? pager.getVirtualCount() : 0);
+    }
+
+    @Nullable
+    @Override
+    public DrawerItem getItem(int position) {
+        if (pager != null && position >= dataSet.size()) {
+            pager.createRow(position - dataSet.size());
+        }
+        return super.getItem(position);
+    }
+
+    @Override
+    public View bindView(int position, View convertView, ViewGroup parent, int payload) {
         DrawerItem drawerItem = getItem(position);
         DrawerTheme drawerTheme = this.drawerTheme;
-
-        assert drawerItem != null;
+        DrawerMetrics metrics = DrawerMetrics.get(getContext());
 
         if (drawerItem.hasDrawerTheme()) {
             drawerTheme = drawerItem.getDrawerTheme();
         }
 
         if (drawerItem.isHeader()) {
-            if (convertView == null || convertView instanceof LinearLayout) {
-                convertView = LayoutInflater.from(getContext()).inflate(R.layout.md_drawer_header_item, parent, false);
+            if (convertView == null || !(convertView instanceof LinearLayout)) {
+                convertView = inflateRow(R.layout.md_drawer_header_item, parent);
             }
 
-            final HeaderViewHolder viewHolder = new HeaderViewHolder(convertView);
+            final HeaderViewHolder viewHolder = HeaderViewHolder.get(convertView);
 
-            if (drawerTheme.isLightTheme()) {
-                viewHolder.getHeaderDivider().setBackgroundColor(ContextCompat.getColor(getContext(), R.color.md_divider_light));
-            } else {
-                viewHolder.getHeaderDivider().setBackgroundColor(ContextCompat.getColor(getContext(), R.color.md_divider_dark));
-            }
+            viewHolder.getHeaderDivider().setBackgroundColor(metrics.getDividerColor(drawerTheme.isLightTheme()));
 
             DrawerHeaderItem drawerHeaderItem = (DrawerHeaderItem) drawerItem;
 
@@ -92,35 +197,40 @@ public class DrawerAdapter extends ArrayAdapter<DrawerItem> {
 
             if (drawerHeaderItem.hasTitle()) {
                 viewHolder.getHeaderTitleRoot().setVisibility(View.VISIBLE);
-                viewHolder.getHeaderRoot().setPadding(0, getContext().getResources().getDimensionPixelSize(R.dimen.md_divider_margin), 0, 0);
+                viewHolder.getHeaderRoot().setPadding(0, metrics.getDividerMargin(), 0, 0);
                 viewHolder.getHeaderTitle().setText(drawerHeaderItem.getTitle());
                 viewHolder.getHeaderTitle().setTextColor(drawerTheme.getTextColorSecondary());
             } else {
                 viewHolder.getHeaderTitleRoot().setVisibility(View.GONE);
-                viewHolder.getHeaderRoot().setPadding(0, getContext().getResources().getDimensionPixelSize(R.dimen.md_divider_margin), 0, getContext().getResources().getDimensionPixelSize(R.dimen.md_divider_margin));
+                viewHolder.getHeaderRoot().setPadding(0, metrics.getDividerMargin(), 0, metrics.getDividerMargin());
             }
 
 
+        } else if (isFlatRow(drawerItem)) {
+            convertView = bindFlatView(position, drawerItem, drawerTheme, metrics, convertView, payload);
         } else {
-            if (convertView == null || !(convertView instanceof RelativeLayout)) {
-                convertView = LayoutInflater.from(getContext()).inflate(R.layout.md_drawer_item, parent, false);
+            if (convertView == null || !(convertView instanceof FrameLayout)) {
+                convertView = inflateRow(R.layout.md_drawer_item, parent);
+                payload = PAYLOAD_ALL;
             }
 
-            final ViewHolder viewHolder = new ViewHolder(convertView);
+            final ViewHolder viewHolder = ViewHolder.get(convertView);
 
             int iconTint = -1;
             int textColorPrimary = drawerTheme.getTextColorPrimary();
 
-            if (drawerTheme.isLightTheme()) {
-                viewHolder.getRoot().setForeground(ContextCompat.getDrawable(getContext(), R.drawable.md_selector_light));
-            } else {
-                viewHolder.getRoot().setForeground(ContextCompat.getDrawable(getContext(), R.drawable.md_selector_dark));
-            }
+            if ((payload & PAYLOAD_THEME) != 0) {
+                Boolean selectorLight = (Boolean) viewHolder.getRoot().getTag(R.id.mdSelectorLight);
+                if (selectorLight == null || selectorLight != drawerTheme.isLightTheme()) {
+                    viewHolder.getRoot().setForeground(metrics.getSelector(drawerTheme.isLightTheme()));
+                    viewHolder.getRoot().setTag(R.id.mdSelectorLight, drawerTheme.isLightTheme());
+                }
 
-            if (drawerTheme.getBackgroundColor() != 0) {
-                viewHolder.getRoot().setBackgroundColor(drawerTheme.getBackgroundColor());
-            } else {
-                viewHolder.getRoot().setBackgroundColor(ContextCompat.getColor(getContext(), android.R.color.transparent));
+                if (drawerTheme.getBackgroundColor() != 0) {
+                    viewHolder.getRoot().setBackgroundColor(drawerTheme.getBackgroundColor());
+                } else {
+                    viewHolder.getRoot().setBackgroundColor(Color.TRANSPARENT);
+                }
             }
 
             if (position == selectedPosition) {
@@ -132,72 +242,843 @@ public class DrawerAdapter extends ArrayAdapter<DrawerItem> {
             }
 
             if (drawerItem.hasImage()) {
-                viewHolder.getImageView().setVisibility(View.VISIBLE);
-                viewHolder.getImageView().setImageDrawable(drawerItem.getImage());
+                if ((payload & PAYLOAD_IMAGE) != 0) {
+                    viewHolder.getImageView().setVisibility(View.VISIBLE);
+                    viewHolder.getImageView().setImageDrawable(drawerItem.getImage());
 
-                int imageSize;
+                    int imageSize;
 
-                if (drawerItem.getImageMode() == DrawerItem.AVATAR) {
-                    imageSize = getContext().getResources().getDimensionPixelSize(R.dimen.md_avatar_size);
-                } else {
-                    imageSize = getContext().getResources().getDimensionPixelSize(R.dimen.md_icon_size);
+                    if (drawerItem.getImageMode() == DrawerItem.AVATAR) {
+                        imageSize = metrics.getAvatarSize();
+                    } else {
+                        imageSize = metrics.getIconSize();
+                    }
+
+                    ViewGroup.MarginLayoutParams layoutParams = (ViewGroup.MarginLayoutParams) viewHolder.getImageView().getLayoutParams();
+                    layoutParams.height = imageSize;
+                    layoutParams.width = metrics.getImageWidth();
+
+                    int imagePaddingEnd = metrics.getImageWidth() - imageSize;
+
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+                        viewHolder.getImageView().setPaddingRelative(0, 0, imagePaddingEnd, 0);
+                    } else {
+                        viewHolder.getImageView().setPadding(0, 0, imagePaddingEnd, 0);
+                    }
+                }
 
+                if ((payload & (PAYLOAD_IMAGE | PAYLOAD_TINT | PAYLOAD_THEME)) != 0) {
                     if (iconTint != -1 && drawerItem.getImageMode() == DrawerItem.ICON) {
                         viewHolder.getImageView().setColorFilter(iconTint, PorterDuff.Mode.SRC_IN);
                     } else {
-                        viewHolder.getImageView().getDrawable().clearColorFilter();
+                        viewHolder.getImageView().clearColorFilter();
+                        if (drawerItem.getImageMode() != DrawerItem.AVATAR) {
+                            viewHolder.getImageView().getDrawable().clearColorFilter();
+                        }
                     }
                 }
+            } else {
+                viewHolder.getImageView().setVisibility(View.GONE);
+            }
 
-                ViewGroup.MarginLayoutParams layoutParams = (ViewGroup.MarginLayoutParams) viewHolder.getImageView().getLayoutParams();
-                layoutParams.height = imageSize;
-                layoutParams.width = getContext().getResources().getDimensionPixelSize(R.dimen.md_baseline_content) - getContext().getResources().getDimensionPixelSize(R.dimen.md_baseline);
+            if ((payload & (PAYLOAD_TEXT | PAYLOAD_TINT | PAYLOAD_THEME)) != 0) {
+                boolean bindText = (payload & PAYLOAD_TEXT) != 0;
 
-                int imagePaddingEnd = getContext().getResources().getDimensionPixelSize(R.dimen.md_baseline_content) - getContext().getResources().getDimensionPixelSize(R.dimen.md_baseline) - imageSize;
+                if (drawerItem.hasTextPrimary()) {
+                    if (bindText) {
+                        viewHolder.getTextViewPrimary().setText(drawerItem.getTextPrimary());
+                    }
+                    viewHolder.getTextViewPrimary().setTextColor(textColorPrimary);
 
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
-                    viewHolder.getImageView().setPaddingRelative(0, 0, imagePaddingEnd, 0);
-                } else {
-                    viewHolder.getImageView().setPadding(0, 0, imagePaddingEnd, 0);
+                    if (drawerItem.hasTextSecondary() && (drawerItem.getTextMode() == DrawerItem.TWO_LINE || drawerItem.getTextMode() == DrawerItem.THREE_LINE)) {
+                        if (bindText) {
+                            viewHolder.getTextViewSecondary().setText(drawerItem.getTextSecondary());
+                            viewHolder.getTextViewSecondary().setVisibility(View.VISIBLE);
+
+                            if (drawerItem.getTextMode() == DrawerItem.THREE_LINE) {
+                                viewHolder.getTextViewSecondary().setMaxLines(2);
+                            } else {
+                                viewHolder.getTextViewSecondary().setMaxLines(1);
+                            }
+                        }
+                        viewHolder.getTextViewSecondary().setTextColor(drawerTheme.getTextColorSecondary());
+                    } else if (bindText) {
+                        viewHolder.getTextViewSecondary().setVisibility(View.GONE);
+                    }
+                } else if (drawerItem.hasTextSecondary()) {
+                    if (bindText) {
+                        viewHolder.getTextViewPrimary().setText(drawerItem.getTextPrimary());
+                        viewHolder.getTextViewSecondary().setVisibility(View.GONE);
+                    }
+                    viewHolder.getTextViewPrimary().setTextColor(textColorPrimary);
+                } else if (bindText) {
+                    viewHolder.getTextViewPrimary().setText(null);
+                    viewHolder.getTextViewSecondary().setVisibility(View.GONE);
                 }
+            }
+        }
+
+        return convertView;
+    }
+
+    private View bindFlatView(int position, DrawerItem drawerItem, DrawerTheme drawerTheme, DrawerMetrics metrics, View convertView, int payload) {
+        if (!(convertView instanceof DrawerItemView)) {
+            convertView = new DrawerItemView(getContext());
+            payload = PAYLOAD_ALL;
+        }
+
+        DrawerItemView itemView = (DrawerItemView) convertView;
 
+        int iconTint = -1;
+        int textColorPrimary = drawerTheme.getTextColorPrimary();
+
+        if ((payload & PAYLOAD_THEME) != 0) {
+            Boolean selectorLight = (Boolean) itemView.getTag(R.id.mdSelectorLight);
+            if (selectorLight == null || selectorLight != drawerTheme.isLightTheme()) {
+                itemView.setSelector(metrics.getSelector(drawerTheme.isLightTheme()));
+                itemView.setTag(R.id.mdSelectorLight, drawerTheme.isLightTheme());
+            }
+
+            if (drawerTheme.getBackgroundColor() != 0) {
+                itemView.setBackgroundColor(drawerTheme.getBackgroundColor());
             } else {
-                viewHolder.getImageView().setVisibility(View.GONE);
+                itemView.setBackgroundColor(Color.TRANSPARENT);
             }
+        }
 
-            if (drawerItem.hasTextPrimary()) {
-                viewHolder.getTextViewPrimary().setText(drawerItem.getTextPrimary());
-                viewHolder.getTextViewPrimary().setTextColor(textColorPrimary);
+        if (position == selectedPosition) {
+            itemView.setSelected(true);
 
-                if (drawerItem.hasTextSecondary() && (drawerItem.getTextMode() == DrawerItem.TWO_LINE || drawerItem.getTextMode() == DrawerItem.THREE_LINE)) {
-                    viewHolder.getTextViewSecondary().setText(drawerItem.getTextSecondary());
-                    viewHolder.getTextViewSecondary().setTextColor(drawerTheme.getTextColorSecondary());
-                    viewHolder.getTextViewSecondary().setVisibility(View.VISIBLE);
+            textColorPrimary = iconTint = drawerTheme.getHighlightColor();
+        } else {
+            itemView.setSelected(false);
+        }
 
-                    if (drawerItem.getTextMode() == DrawerItem.THREE_LINE) {
-                        viewHolder.getTextViewSecondary().setMaxLines(2);
-                    } else {
-                        viewHolder.getTextViewSecondary().setMaxLines(1);
-                    }
+        if ((payload & PAYLOAD_IMAGE) != 0) {
+            if (drawerItem.hasImage()) {
+                int imageSize = drawerItem.getImageMode() == DrawerItem.AVATAR ? metrics.getAvatarSize() : metrics.getIconSize();
+                itemView.setImage(drawerItem.getImage(), imageSize);
+            } else {
+                itemView.setImage(null, 0);
+            }
+        }
 
-                } else {
-                    viewHolder.getTextViewSecondary().setVisibility(View.GONE);
-                }
-            } else if (drawerItem.hasTextSecondary()) {
-                viewHolder.getTextViewPrimary().setText(drawerItem.getTextPrimary());
-                viewHolder.getTextViewPrimary().setTextColor(textColorPrimary);
+        if (drawerItem.hasImage() && (payload & (PAYLOAD_IMAGE | PAYLOAD_TINT | PAYLOAD_THEME)) != 0) {
+            if (iconTint != -1 && drawerItem.getImageMode() == DrawerItem.ICON) {
+                itemView.setImageColorFilter(iconTint);
+            } else {
+                itemView.clearImageColorFilter();
+            }
+        }
 
-                viewHolder.getTextViewSecondary().setVisibility(View.GONE);
+        if ((payload & (PAYLOAD_TEXT | PAYLOAD_TINT | PAYLOAD_THEME)) != 0) {
+            if ((payload & PAYLOAD_TEXT) != 0) {
+                boolean showTextSecondary = drawerItem.hasTextPrimary() && drawerItem.hasTextSecondary() &&
+                        drawerItem.getTextMode() == DrawerItem.TWO_LINE;
+                itemView.setText(drawerItem.getTextPrimary(), showTextSecondary ? drawerItem.getTextSecondary() : null);
             }
+            itemView.setTextColorPrimary(textColorPrimary);
+            itemView.setTextColorSecondary(drawerTheme.getTextColorSecondary());
         }
 
-        return convertView;
+        return itemView;
+    }
+
+    /**
+     * Sets whether items should be displayed as flat rows.
+     * A flat row is a single view that draws the image and texts of an item itself, which is cheaper to measure and lay out
+     * than the inflated row layout. Items in {@link DrawerItem#THREE_LINE} text mode always use the inflated row layout.
+     *
+     * @param flatRowsEnabled True to display supported items as flat rows, false to inflate all rows.
+     */
+    public void setFlatRowsEnabled(boolean flatRowsEnabled) {
+        if (this.flatRowsEnabled != flatRowsEnabled) {
+            this.flatRowsEnabled = flatRowsEnabled;
+            notifyDataSetChanged();
+        }
+    }
+
+    public boolean isFlatRowsEnabled() {
+        return flatRowsEnabled;
+    }
+
+    /**
+     * Builds the text layouts of the flat rows in a range of positions on a background thread,
+     * so binding and measuring the rows later doesn't need to lay out their texts on the main thread.
+     * Only a window around the rows on screen should be requested, as the layout cache is bounded.
+     * Only flat rows are covered, so this does nothing unless {@link #setFlatRowsEnabled(boolean) flat rows are enabled}.
+     * Items in {@link DrawerItem#THREE_LINE} text mode and all rows while flat rows are disabled are inflated rows,
+     * whose text views lay out their texts themselves on the main thread.
+     *
+     * @param rowWidth      Width of the rows in pixels
+     * @param rtl           Whether the rows are laid out right to left
+     * @param firstPosition Position of the first row, may be out of bounds
+     * @param lastPosition  Position of the last row, may be out of bounds
+     */
+    public void precomputeTextLayouts(int rowWidth, boolean rtl, int firstPosition, int lastPosition) {
+        if (!flatRowsEnabled || rowWidth <= 0) {
+            return;
+        }
+        DrawerMetrics metrics = DrawerMetrics.get(getContext());
+        List<DrawerTextLayouts.Request> requests = new ArrayList<>();
+        int end = Math.min(lastPosition + 1, dataSet.size());
+        for (int position = Math.max(0, firstPosition); position < end; position++) {
+            DrawerItem item = dataSet.get(position);
+            if (item == null || !isFlatRow(item)) {
+                continue;
+            }
+            int textWidth = DrawerItemView.getTextWidth(rowWidth, item.hasImage(), metrics);
+            requests.add(new DrawerTextLayouts.Request(DrawerTextLayouts.STYLE_PRIMARY, item.getTextPrimary(), textWidth));
+            if (item.hasTextPrimary() && item.hasTextSecondary() && item.getTextMode() == DrawerItem.TWO_LINE) {
+                requests.add(new DrawerTextLayouts.Request(DrawerTextLayouts.STYLE_SECONDARY, item.getTextSecondary(), textWidth));
+            }
+        }
+        DrawerTextLayouts.precompute(metrics, requests, rtl);
+    }
+
+    /**
+     * Gets whether an item is displayed as a flat row
+     *
+     * @param item The item
+     * @return True if the item is displayed by a {@link DrawerItemView}, false otherwise.
+     */
+    protected boolean isFlatRow(DrawerItem item) {
+        return flatRowsEnabled && !item.isHeader() && item.getTextMode() != DrawerItem.THREE_LINE;
     }
 
     @Override
     public boolean isEnabled(int position) {
         DrawerItem item = getItem(position);
-        return item != null && item.hasOnItemClickListener();
+        return item != null && !item.isHeader() && !(item instanceof DrawerPlaceholderItem);
+    }
+
+    @Override
+    public int getViewTypeCount() {
+        return 3;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        DrawerItem item = getItem(position);
+        if (item != null && item.isHeader()) {
+            return VIEW_TYPE_HEADER;
+        }
+        return item != null && isFlatRow(item) ? VIEW_TYPE_FLAT_ITEM : VIEW_TYPE_ITEM;
+    }
+
+    /**
+     * Item IDs are only stable while no two items of this adapter share an ID,
+     * e.g. items added without assigning IDs all have the default ID.
+     * Every item is put into the ID index, so the IDs are unique if the index holds an entry for every item.
+     * Otherwise the index is rebuilt first, as items that shared an ID may have been removed or changed their ID since.
+     */
+    @Override
+    public boolean hasStableIds() {
+        if (itemsById.size() != dataSet.size()) {
+            itemsById.clear();
+            for (DrawerItem item : dataSet) {
+                if (item != null) {
+                    itemsById.put(item.getId(), item);
+                }
+            }
+        }
+        return itemsById.size() == dataSet.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        DrawerItem item = getItem(position);
+        return item != null ? item.getId() : position;
+    }
+
+    @Override
+    public void registerItemObserver(LinearListView.ItemObserver observer) {
+        if (!itemObservers.contains(observer)) {
+            itemObservers.add(observer);
+        }
+    }
+
+    @Override
+    public void unregisterItemObserver(LinearListView.ItemObserver observer) {
+        itemObservers.remove(observer);
+    }
+
+    /**
+     * Notifies the observers that only parts of an item changed.
+     * Observers that can rebind single rows only rebind the changed parts of that row,
+     * all other observers are notified that the data set changed.
+     *
+     * @param item    The changed item
+     * @param payload The changed parts, a combination of {@link #PAYLOAD_TEXT}, {@link #PAYLOAD_IMAGE}, {@link #PAYLOAD_TINT} and {@link #PAYLOAD_THEME}
+     */
+    public void notifyItemChanged(DrawerItem item, int payload) {
+        int position = getPosition(item);
+        if (position < 0) {
+            return;
+        }
+        if ((payload & PAYLOAD_TEXT) != 0 && filterIndex != null) {
+            filterIndex.update(item);
+            if (filterMatches != null && filterMatches.contains(item) != filterIndex.matches(item, filterWords)) {
+                // The row appears or disappears in the filtered list
+                if (!filterMatches.remove(item)) {
+                    filterMatches.add(item);
+                }
+                notifyDataSetChanged();
+                return;
+            }
+        }
+        notifyItemChanged(position, payload);
+    }
+
+    /**
+     * Notifies the observers that only parts of the item at the given position changed
+     *
+     * @param position The position of the changed item
+     * @param payload  The changed parts, a combination of {@link #PAYLOAD_TEXT}, {@link #PAYLOAD_IMAGE}, {@link #PAYLOAD_TINT} and {@link #PAYLOAD_THEME}
+     */
+    public void notifyItemChanged(int position, int payload) {
+        if (payload == 0 || position < 0 || position >= getCount()) {
+            return;
+        }
+        if (itemObservers.isEmpty() || batchDepth > 0 || notifyPending) {
+            notifyDataSetChanged();
+            return;
+        }
+        for (int i = itemObservers.size() - 1; i >= 0; i--) {
+            itemObservers.get(i).onItemChanged(position, payload);
+        }
+    }
+
+    @Override
+    public void add(@Nullable DrawerItem item) {
+        createAllRows();
+        itemsSnapshot = null;
+        positionIndex = null;
+        putInIndex(item);
+        super.add(item);
+    }
+
+    @Override
+    public void addAll(@NonNull Collection<? extends DrawerItem> collection) {
+        createAllRows();
+        itemsSnapshot = null;
+        positionIndex = null;
+        for (DrawerItem item : collection) {
+            putInIndex(item);
+        }
+        super.addAll(collection);
+    }
+
+    @Override
+    public void addAll(DrawerItem... items) {
+        createAllRows();
+        itemsSnapshot = null;
+        positionIndex = null;
+        for (DrawerItem item : items) {
+            putInIndex(item);
+        }
+        super.addAll(items);
+    }
+
+    @Override
+    public void insert(@Nullable DrawerItem item, int index) {
+        if (index >= dataSet.size()) {
+            createAllRows();
+        }
+        itemsSnapshot = null;
+        positionIndex = null;
+        putInIndex(item);
+        super.insert(item, index);
+    }
+
+    @Override
+    public void remove(@Nullable DrawerItem item) {
+        itemsSnapshot = null;
+        positionIndex = null;
+        removeFromIndex(item);
+        super.remove(item);
+    }
+
+    @Override
+    public void clear() {
+        if (pager != null) {
+            pager.release();
+            pager = null;
+        }
+        itemsSnapshot = null;
+        positionIndex = null;
+        itemsById.clear();
+        if (filterIndex != null) {
+            filterIndex.clear();
+        }
+        if (filterMatches != null) {
+            filterMatches.clear();
+        }
+        super.clear();
+    }
+
+    @Override
+    public void sort(@NonNull Comparator<? super DrawerItem> comparator) {
+        createAllRows();
+        itemsSnapshot = null;
+        positionIndex = null;
+        super.sort(comparator);
+    }
+
+    /**
+     * Gets the drawer item with the given ID without scanning the list
+     *
+     * @param id The drawer item ID
+     * @return The drawer item or {@code null} if there is no drawer item with that ID.
+     */
+    @Nullable
+    public DrawerItem findById(long id) {
+        return itemsById.get(id);
+    }
+
+    /**
+     * Updates the ID index after the ID of a contained drawer item changed
+     *
+     * @param item The drawer item
+     * @param oldId The previous ID of the drawer item
+     */
+    public void onIdChanged(DrawerItem item, long oldId) {
+        if (itemsById.get(oldId) == item) {
+            itemsById.remove(oldId);
+        }
+        if (getPosition(item) >= 0) {
+            itemsById.put(item.getId(), item);
+        }
+    }
+
+    @Override
+    public int getPosition(@Nullable DrawerItem item) {
+        if (item != null) {
+            int position;
+            DrawerGroupItem group = item.getGroup();
+            if (group != null) {
+                int groupPosition = getPositionIndex().getPosition(group);
+                position = groupPosition >= 0 ? groupPosition + 1 + group.getChildren().indexOf(item) : -1;
+            } else {
+                position = getPositionIndex().getPosition(item);
+            }
+            if (position >= 0 && position < dataSet.size() && dataSet.get(position) == item) {
+                return position;
+            }
+        }
+        return super.getPosition(item);
+    }
+
+    /**
+     * Shows the rows of the children of a group below the group.
+     * The group position is looked up and updated in logarithmic time and the children are inserted at once.
+     *
+     * @param group The group, must be a top level item of this adapter
+     */
+    public void showGroupChildren(DrawerGroupItem group) {
+        int position = getPosition(group);
+        if (position < 0 || hasChildRows(group, position)) {
+            return;
+        }
+        List<DrawerItem> children = group.getChildren();
+        if (children.isEmpty()) {
+            return;
+        }
+
+        DrawerPositionIndex index = getPositionIndex();
+        for (DrawerItem child : children) {
+            child.attachTo(this);
+            putInIndex(child);
+        }
+        dataSet.addAll(position + 1, children);
+        itemsSnapshot = null;
+        if (!index.addRows(group, children.size())) {
+            index = null;
+        }
+        positionIndex = index;
+
+        if (selectedPosition > position) {
+            selectedPosition += children.size();
+        }
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Removes the rows of the children of a group.
+     * The group position is looked up and updated in logarithmic time and the children are removed at once.
+     *
+     * @param group The group, must be a top level item of this adapter
+     */
+    public void hideGroupChildren(DrawerGroupItem group) {
+        int position = getPosition(group);
+        if (position < 0 || !hasChildRows(group, position)) {
+            return;
+        }
+        int count = Math.min(group.getChildCount(), dataSet.size() - position - 1);
+
+        DrawerPositionIndex index = getPositionIndex();
+        List<DrawerItem> rows = dataSet.subList(position + 1, position + 1 + count);
+        for (DrawerItem child : rows) {
+            child.detach();
+            removeFromIndex(child);
+        }
+        rows.clear();
+        itemsSnapshot = null;
+        if (!index.addRows(group, -count)) {
+            index = null;
+        }
+        positionIndex = index;
+
+        if (selectedPosition > position + count) {
+            selectedPosition -= count;
+        } else if (selectedPosition > position) {
+            selectedPosition = -1;
+        }
+        notifyDataSetChanged();
+    }
+
+    private boolean hasChildRows(DrawerGroupItem group, int position) {
+        return position + 1 < dataSet.size() && dataSet.get(position + 1).getGroup() == group;
+    }
+
+    /**
+     * Gets the index of the top level item positions, rebuilding it in linear time after structural changes
+     */
+    private DrawerPositionIndex getPositionIndex() {
+        if (positionIndex == null) {
+            int count = dataSet.size();
+            List<DrawerItem> items = new ArrayList<>(count);
+            int[] rowCounts = new int[count];
+            int position = 0;
+            while (position < count) {
+                DrawerItem item = dataSet.get(position);
+                int rows = 1;
+                if (item instanceof DrawerGroupItem && hasChildRows((DrawerGroupItem) item, position)) {
+                    rows += Math.min(((DrawerGroupItem) item).getChildCount(), count - position - 1);
+                }
+                rowCounts[items.size()] = rows;
+                items.add(item);
+                position += rows;
+            }
+            positionIndex = new DrawerPositionIndex(items, rowCounts);
+        }
+        return positionIndex;
+    }
+
+    private void putInIndex(DrawerItem item) {
+        if (item != null) {
+            itemsById.put(item.getId(), item);
+            if (filterIndex != null) {
+                filterIndex.add(item);
+                if (filterMatches != null && filterIndex.matches(item, filterWords)) {
+                    filterMatches.add(item);
+                }
+            }
+        }
+    }
+
+    private void removeFromIndex(DrawerItem item) {
+        if (item != null && itemsById.get(item.getId()) == item) {
+            itemsById.remove(item.getId());
+        }
+        if (item != null && filterIndex != null) {
+            filterIndex.remove(item);
+            if (filterMatches != null) {
+                filterMatches.remove(item);
+            }
+        }
+    }
+
+    /**
+     * Filters the items by the words of their primary and secondary texts.
+     * An item matches if every word of the query is the beginning of one of its words, ignoring case and accents.
+     * The word index is built on first use and updated as items change. If the query only extends the previous one,
+     * the previous matches are narrowed down instead of searching again.
+     * Observers are not notified of the filter change except through {@link #getFilteredAdapter()},
+     * so lists showing this adapter directly have to refresh the visibility of their rows.
+     *
+     * @param query The query or {@code null} to show all items
+     */
+    public void setFilter(CharSequence query) {
+        if (filterIndex == null) {
+            if (TextUtils.isEmpty(query)) {
+                return;
+            }
+            filterIndex = new DrawerFilterIndex(Locale.getDefault());
+            for (DrawerItem item : dataSet) {
+                filterIndex.add(item);
+            }
+        }
+
+        String[] words = filterIndex.getWords(query);
+        if (words.length == 0) {
+            filter = null;
+            filterWords = null;
+            filterMatches = null;
+        } else if (filterMatches != null && DrawerFilterIndex.isNarrowing(filterWords, words)) {
+            filter = query.toString();
+            filterWords = words;
+            filterIndex.narrow(filterMatches, words);
+        } else {
+            filter = query.toString();
+            filterWords = words;
+            filterMatches = filterIndex.find(words);
+        }
+        filteredPositions = null;
+
+        if (filteredAdapter != null) {
+            filteredAdapter.notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Gets the current filter query
+     *
+     * @return The query or {@code null} if all items are shown
+     */
+    public String getFilter() {
+        return filter;
+    }
+
+    @Override
+    public boolean isRowVisible(int position) {
+        return filterMatches == null || (position < dataSet.size() && filterMatches.contains(dataSet.get(position)));
+    }
+
+    /**
+     * Gets the number of items matching the filter
+     *
+     * @return Number of matching items
+     */
+    public int getFilteredCount() {
+        return filterMatches == null ? getCount() : getFilteredPositions().length;
+    }
+
+    /**
+     * Gets the position of an item in this adapter from its position among the items matching the filter
+     *
+     * @param filteredPosition Position among the matching items
+     * @return The position in this adapter
+     */
+    public int getUnfilteredPosition(int filteredPosition) {
+        return filterMatches == null ? filteredPosition : getFilteredPositions()[filteredPosition];
+    }
+
+    /**
+     * Gets the position of an item among the items matching the filter
+     *
+     * @param position The position in this adapter
+     * @return The position among the matching items or -1 if the item doesn't match.
+     */
+    public int getFilteredPosition(int position) {
+        if (filterMatches == null) {
+            return position;
+        }
+        int filteredPosition = Arrays.binarySearch(getFilteredPositions(), position);
+        return filteredPosition >= 0 ? filteredPosition : -1;
+    }
+
+    /**
+     * Gets an adapter with only the items matching the filter, for lists that bind rows on demand
+     *
+     * @return The filtered adapter
+     */
+    public ListAdapter getFilteredAdapter() {
+        if (filteredAdapter == null) {
+            filteredAdapter = new DrawerFilterAdapter(this);
+        }
+        return filteredAdapter;
+    }
+
+    private int[] getFilteredPositions() {
+        if (filteredPositions == null) {
+            int[] positions = new int[filterMatches.size()];
+            int count = 0;
+            for (int i = 0; i < dataSet.size() && count < positions.length; i++) {
+                if (filterMatches.contains(dataSet.get(i))) {
+                    positions[count++] = i;
+                }
+            }
+            filteredPositions = count == positions.length ? positions : Arrays.copyOf(positions, count);
+        }
+        return filteredPositions;
+    }
+
+    /**
+     * Starts collecting changes. Data set change notifications are held back until the matching {@link #endBatch()}.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Ends collecting changes and notifies the observers once if anything changed since {@link #beginBatch()}.
+     */
+    public void endBatch() {
+        if (batchDepth > 0 && --batchDepth == 0 && batchChanged) {
+            batchChanged = false;
+            notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Gets whether changes are currently collected
+     *
+     * @return True if a batch is in progress, false otherwise.
+     */
+    public boolean isInBatch() {
+        return batchDepth > 0;
+    }
+
+    @Override
+    public void notifyDataSetChanged() {
+        filteredPositions = null;
+        if (batchDepth > 0) {
+            batchChanged = true;
+            return;
+        }
+        if (notifyScheduler != null) {
+            notifyPending = true;
+            notifyScheduler.scheduleNotify(this);
+            return;
+        }
+        super.notifyDataSetChanged();
+    }
+
+    /**
+     * Sets a scheduler data set change notifications are handed to instead of notifying the observers immediately.
+     * Removing the scheduler dispatches a pending notification.
+     *
+     * @param notifyScheduler Scheduler to use or {@code null} to notify immediately
+     */
+    public void setNotifyScheduler(NotifyScheduler notifyScheduler) {
+        this.notifyScheduler = notifyScheduler;
+        if (notifyScheduler == null) {
+            dispatchPendingNotify();
+        }
+    }
+
+    /**
+     * Notifies the observers of the data set change held back for the scheduler, if any
+     */
+    public void dispatchPendingNotify() {
+        if (notifyPending) {
+            notifyPending = false;
+            super.notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Sets the pool new rows are taken from before they are inflated
+     *
+     * @param rowPool Pool to use or {@code null} to always inflate rows
+     */
+    public void setRowPool(DrawerRowPool rowPool) {
+        this.rowPool = rowPool;
+    }
+
+    public DrawerRowPool getRowPool() {
+        return rowPool;
+    }
+
+    private View inflateRow(@LayoutRes int layout, ViewGroup parent) {
+        if (rowPool != null) {
+            return rowPool.obtain(layout, parent);
+        }
+        return LayoutInflater.from(getContext()).inflate(layout, parent, false);
+    }
+
+    /**
+     * Replaces all items with the items of a source that are loaded page by page on a background thread.
+     * Rows of items that are not loaded yet show a placeholder. A page is loaded once a row within the prefetch distance is bound.
+     *
+     * @param source           Source to load items from or {@code null} to remove all items
+     * @param pageSize         Number of items to load at once
+     * @param prefetchDistance Number of rows before and after a bound row whose pages should be loaded as well
+     */
+    public void setItemSource(DrawerItemSource source, int pageSize, int prefetchDistance) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        if (prefetchDistance < 0) {
+            throw new IllegalArgumentException("Prefetch distance must not be negative.");
+        }
+        if (pager != null) {
+            pager.release();
+            pager = null;
+        }
+
+        for (DrawerItem item : getItems()) {
+            item.detach();
+        }
+        selectedPosition = -1;
+        clear();
+
+        if (source != null) {
+            pager = new DrawerItemPager(this, source, pageSize, prefetchDistance);
+            pager.start();
+        }
+    }
+
+    /**
+     * Gets the source items are loaded from
+     *
+     * @return The source or {@code null} if the items were added directly
+     */
+    public DrawerItemSource getItemSource() {
+        return pager != null ? pager.getSource() : null;
+    }
+
+    /**
+     * Appends rows created by the pager for rows it counted already, so observers are not notified
+     */
+    void appendRows(List<DrawerItem> rows) {
+        itemsSnapshot = null;
+        positionIndex = null;
+        filteredPositions = null;
+        for (DrawerItem row : rows) {
+            putInIndex(row);
+        }
+        dataSet.addAll(rows);
+    }
+
+    private void createAllRows() {
+        if (pager != null) {
+            pager.createAllRows();
+        }
+    }
+
+    /**
+     * Replaces placeholders with loaded items. Placeholders that are no longer in this adapter are skipped.
+     *
+     * @param placeholders The placeholders
+     * @param items        The items replacing the placeholders at the same index
+     */
+    void replacePlaceholders(List<DrawerPlaceholderItem> placeholders, List<DrawerItem> items) {
+        boolean changed = false;
+        int position = -1;
+        for (int i = 0; i < placeholders.size(); i++) {
+            DrawerPlaceholderItem placeholder = placeholders.get(i);
+            // Placeholders of a page are usually still next to each other
+            position++;
+            if (position <= 0 || position >= dataSet.size() || dataSet.get(position) != placeholder) {
+                position = getPosition(placeholder);
+            }
+            if (position < 0) {
+                continue;
+            }
+            DrawerItem item = items.get(i);
+            removeFromIndex(placeholder);
+            item.attachTo(this);
+            putInIndex(item);
+            dataSet.set(position, item);
+            changed = true;
+        }
+        if (changed) {
+            itemsSnapshot = null;
+            positionIndex = null;
+            notifyDataSetChanged();
+        }
     }
 
     public void setDrawerTheme(DrawerTheme theme) {
@@ -205,22 +1086,41 @@ public class DrawerAdapter extends ArrayAdapter<DrawerItem> {
         notifyDataSetChanged();
     }
 
+    /**
+     * Gets an unmodifiable snapshot of all items.
+     * Rows of an item source that were only counted and never requested are not part of the snapshot.
+     * The snapshot is only copied again after the items changed, so repeated calls don't allocate.
+     *
+     * @return Unmodifiable list of the items
+     */
     public List<DrawerItem> getItems() {
-        List<DrawerItem> items = new ArrayList<>();
-        for (int i = 0; i < getCount(); i++) {
-            items.add(getItem(i));
+        if (itemsSnapshot == null) {
+            itemsSnapshot = Collections.unmodifiableList(new ArrayList<>(dataSet));
         }
-        return items;
+        return itemsSnapshot;
     }
 
+    /**
+     * Selects an item. Only the rows of the previously and the newly selected item are rebound.
+     *
+     * @param position Position of the item to select or -1 to clear the selection
+     */
     public void select(int position) {
-        if (position >= 0 && position < getCount()) {
-            selectedPosition = position;
-            notifyDataSetChanged();
-        } else {
-            selectedPosition = -1;
+        if (position < 0 || position >= getCount()) {
+            position = -1;
+        }
+        int oldPosition = selectedPosition;
+        if (oldPosition == position) {
+            return;
+        }
+        selectedPosition = position;
+
+        if (itemObservers.isEmpty() || batchDepth > 0 || notifyPending) {
             notifyDataSetChanged();
+            return;
         }
+        notifyItemChanged(oldPosition, PAYLOAD_TINT);
+        notifyItemChanged(position, PAYLOAD_TINT);
     }
 
     public void clearSelection() {
@@ -231,12 +1131,41 @@ public class DrawerAdapter extends ArrayAdapter<DrawerItem> {
         return selectedPosition;
     }
 
+    /**
+     * Defers data set change notifications of an adapter, for example to the next frame
+     */
+    public interface NotifyScheduler {
+        /**
+         * Called for each data set change of an adapter. The scheduler has to call the adapter's
+         * {@code dispatchPendingNotify()} later to notify its observers once for all changes until then.
+         *
+         * @param adapter The changed adapter
+         */
+        void scheduleNotify(ArrayAdapter<?> adapter);
+    }
+
     private static class ViewHolder {
         private final FrameLayout mRoot;
         private final ImageView mImageView;
         private final TextView mTextViewPrimary;
         private final TextView mTextViewSecondary;
 
+        /**
+         * Gets the holder stored in a row or creates and stores a new one, so each row only looks up its views once
+         *
+         * @param root The root view of the row
+         * @return The holder of the row
+         */
+        public static ViewHolder get(View root) {
+            Object tag = root.getTag();
+            if (tag instanceof ViewHolder) {
+                return (ViewHolder) tag;
+            }
+            ViewHolder holder = new ViewHolder(root);
+            root.setTag(holder);
+            return holder;
+        }
+
         public ViewHolder(View root) {
             mRoot = (FrameLayout) root;
             mImageView = (ImageView) root.findViewById(R.id.mdImage);
@@ -267,6 +1196,22 @@ public class DrawerAdapter extends ArrayAdapter<DrawerItem> {
         private final LinearLayout mHeaderTitleRoot;
         private final TextView mHeaderTitle;
 
+        /**
+         * Gets the holder stored in a row or creates and stores a new one, so each row only looks up its views once
+         *
+         * @param root The root view of the row
+         * @return The holder of the row
+         */
+        public static HeaderViewHolder get(View root) {
+            Object tag = root.getTag();
+            if (tag instanceof HeaderViewHolder) {
+                return (HeaderViewHolder) tag;
+            }
+            HeaderViewHolder holder = new HeaderViewHolder(root);
+            root.setTag(holder);
+            return holder;
+        }
+
         public HeaderViewHolder(View root) {
             mHeaderRoot = (LinearLayout) root;
             mHeaderDivider = root.findViewById(R.id.mdDivider);
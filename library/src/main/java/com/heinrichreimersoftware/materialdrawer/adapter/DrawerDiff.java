@@ -0,0 +1,366 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import android.os.AsyncTask;
+import android.support.v4.util.LongSparseArray;
+import android.widget.ArrayAdapter;
+
+import java.util.List;
+
+/**
+ * Difference between two lists of drawer items or profiles, matched by their IDs.
+ * Elements that keep their relative order stay in place, all other retained elements are moved,
+ * so the number of moves is minimal.
+ */
+public class DrawerDiff<T> {
+
+    private final List<T> oldList;
+    private final List<T> newList;
+
+    /**
+     * Positions in the old list to remove, descending
+     */
+    private final int[] removals;
+    /**
+     * Positions in the new list to insert, ascending
+     */
+    private final int[] insertions;
+    /**
+     * Positions in the new list of elements that stay in place but were replaced by another instance
+     */
+    private final int[] replacements;
+    private final boolean[] replacementChanged;
+
+    private DrawerDiff(List<T> oldList, List<T> newList, int[] removals, int[] insertions, int[] replacements, boolean[] replacementChanged) {
+        this.oldList = oldList;
+        this.newList = newList;
+        this.removals = removals;
+        this.insertions = insertions;
+        this.replacements = replacements;
+        this.replacementChanged = replacementChanged;
+    }
+
+    /**
+     * Calculates the difference between two lists.
+     * This can be called from any thread that the elements are not changed on while calculating.
+     *
+     * @param oldList  The current list
+     * @param newList  The list to change to
+     * @param callback Callback to compare elements
+     * @return The difference between the lists
+     */
+    public static <T> DrawerDiff<T> calculate(List<T> oldList, List<T> newList, Callback<T> callback) {
+        return calculate(new Snapshot<>(oldList, callback), new Snapshot<>(newList, callback));
+    }
+
+    private static <T> DrawerDiff<T> calculate(Snapshot<T> oldSnapshot, Snapshot<T> newSnapshot) {
+        int oldSize = oldSnapshot.ids.length;
+        int newSize = newSnapshot.ids.length;
+
+        LongSparseArray<Integer> oldPositions = new LongSparseArray<>(oldSize);
+        for (int i = 0; i < oldSize; i++) {
+            long id = oldSnapshot.ids[i];
+            if (oldPositions.get(id) == null) {
+                oldPositions.put(id, i);
+            }
+        }
+
+        int[] newToOld = new int[newSize];
+        for (int i = 0; i < newSize; i++) {
+            Integer oldPosition = oldPositions.get(newSnapshot.ids[i]);
+            newToOld[i] = oldPosition != null ? oldPosition : -1;
+        }
+
+        boolean[] stays = longestIncreasingSubsequence(newToOld);
+        boolean[] oldStays = new boolean[oldSize];
+        for (int i = 0; i < newSize; i++) {
+            if (stays[i]) {
+                oldStays[newToOld[i]] = true;
+            }
+        }
+
+        int[] removals = new int[oldSize];
+        int removalCount = 0;
+        for (int i = oldSize - 1; i >= 0; i--) {
+            if (!oldStays[i]) {
+                removals[removalCount++] = i;
+            }
+        }
+
+        int[] insertions = new int[newSize];
+        int insertionCount = 0;
+        int[] replacements = new int[newSize];
+        boolean[] replacementChanged = new boolean[newSize];
+        int replacementCount = 0;
+        for (int i = 0; i < newSize; i++) {
+            if (!stays[i]) {
+                insertions[insertionCount++] = i;
+                continue;
+            }
+            boolean changed = !equal(oldSnapshot.contents[newToOld[i]], newSnapshot.contents[i]);
+            if (oldSnapshot.elements[newToOld[i]] != newSnapshot.elements[i] || changed) {
+                replacements[replacementCount] = i;
+                replacementChanged[replacementCount] = changed;
+                replacementCount++;
+            }
+        }
+
+        return new DrawerDiff<>(oldSnapshot.list, newSnapshot.list,
+                trim(removals, removalCount),
+                trim(insertions, insertionCount),
+                trim(replacements, replacementCount),
+                trim(replacementChanged, replacementCount));
+    }
+
+    /**
+     * Calculates the difference between two lists on a background thread.
+     * The IDs and contents of the elements are captured on the calling thread first, so only those snapshots are compared
+     * in the background and the elements may keep changing on the main thread. Such changes are not part of the difference.
+     *
+     * @param oldList  The current list
+     * @param newList  The list to change to
+     * @param callback Callback to compare elements
+     * @param listener Listener to be called on the main thread once the difference is calculated
+     */
+    public static <T> void calculateAsync(List<T> oldList, List<T> newList, Callback<T> callback, OnCalculatedListener<T> listener) {
+        new CalculateTask<>(new Snapshot<>(oldList, callback), new Snapshot<>(newList, callback), listener)
+                .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * Gets the list this difference was calculated from
+     *
+     * @return The old list
+     */
+    public List<T> getOldList() {
+        return oldList;
+    }
+
+    /**
+     * Gets the list this difference was calculated to
+     *
+     * @return The new list
+     */
+    public List<T> getNewList() {
+        return newList;
+    }
+
+    /**
+     * Gets the positions in the old list to remove, descending
+     */
+    int[] getRemovals() {
+        return removals;
+    }
+
+    /**
+     * Gets the positions in the new list to insert after the removals, ascending
+     */
+    int[] getInsertions() {
+        return insertions;
+    }
+
+    /**
+     * Gets the positions in the new list of elements that stay in place but were replaced by another instance
+     */
+    int[] getReplacements() {
+        return replacements;
+    }
+
+    /**
+     * Gets whether elements are removed, inserted or moved
+     *
+     * @return True if the structure of the list changes, false if at most the contents of elements change.
+     */
+    public boolean isStructural() {
+        return removals.length > 0 || insertions.length > 0;
+    }
+
+    /**
+     * Gets whether the lists are equal
+     *
+     * @return True if applying this difference would not change anything, false otherwise.
+     */
+    public boolean isEmpty() {
+        return !isStructural() && replacements.length == 0;
+    }
+
+    /**
+     * Applies this difference to an adapter that contains the old list.
+     * Structural changes notify the adapter once, content-only changes of a {@link DrawerAdapter} rebind only the changed rows.
+     *
+     * @param adapter The adapter to apply to
+     */
+    public void dispatchTo(ArrayAdapter<T> adapter) {
+        if (isEmpty()) {
+            return;
+        }
+
+        adapter.setNotifyOnChange(false);
+        for (int position : removals) {
+            adapter.remove(adapter.getItem(position));
+        }
+        for (int position : insertions) {
+            adapter.insert(newList.get(position), position);
+        }
+        boolean changed = false;
+        for (int i = 0; i < replacements.length; i++) {
+            int position = replacements[i];
+            adapter.remove(adapter.getItem(position));
+            adapter.insert(newList.get(position), position);
+            changed |= replacementChanged[i];
+        }
+        adapter.setNotifyOnChange(true);
+
+        if (isStructural()) {
+            adapter.notifyDataSetChanged();
+        } else if (adapter instanceof DrawerAdapter) {
+            for (int i = 0; i < replacements.length; i++) {
+                if (replacementChanged[i]) {
+                    ((DrawerAdapter) adapter).notifyItemChanged(replacements[i], DrawerAdapter.PAYLOAD_ALL);
+                }
+            }
+        } else if (changed) {
+            adapter.notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Marks the elements of the longest subsequence of increasing old positions, ignoring new elements
+     */
+    private static boolean[] longestIncreasingSubsequence(int[] positions) {
+        int length = positions.length;
+        int[] tails = new int[length];
+        int[] previous = new int[length];
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            if (positions[i] < 0) {
+                continue;
+            }
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (positions[tails[middle]] < positions[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == size) {
+                size++;
+            }
+        }
+
+        boolean[] inSequence = new boolean[length];
+        for (int i = size > 0 ? tails[size - 1] : -1; i >= 0; i = previous[i]) {
+            inSequence[i] = true;
+        }
+        return inSequence;
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static int[] trim(int[] array, int length) {
+        int[] trimmed = new int[length];
+        System.arraycopy(array, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+    private static boolean[] trim(boolean[] array, int length) {
+        boolean[] trimmed = new boolean[length];
+        System.arraycopy(array, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+
+    public interface Callback<T> {
+        long getId(T element);
+
+        /**
+         * Captures everything of an element that is displayed, so elements whose contents are not equal are rebound.
+         * Called on the thread the calculation is started from. The contents may be compared on a background thread,
+         * so they must not change afterwards.
+         *
+         * @param element The element
+         * @return Immutable contents compared by {@link Object#equals(Object)}
+         */
+        Object getContents(T element);
+    }
+
+    public interface OnCalculatedListener<T> {
+        void onCalculated(DrawerDiff<T> diff);
+    }
+
+    /**
+     * IDs and contents of the elements of a list, captured at once
+     */
+    private static class Snapshot<T> {
+        private final List<T> list;
+        private final Object[] elements;
+        private final long[] ids;
+        private final Object[] contents;
+
+        private Snapshot(List<T> list, Callback<T> callback) {
+            int size = list.size();
+            this.list = list;
+            elements = new Object[size];
+            ids = new long[size];
+            contents = new Object[size];
+            for (int i = 0; i < size; i++) {
+                T element = list.get(i);
+                elements[i] = element;
+                ids[i] = callback.getId(element);
+                contents[i] = callback.getContents(element);
+            }
+        }
+    }
+
+    private static class CalculateTask<T> extends AsyncTask<Void, Void, DrawerDiff<T>> {
+        private final Snapshot<T> oldSnapshot;
+        private final Snapshot<T> newSnapshot;
+        private final OnCalculatedListener<T> listener;
+
+        private CalculateTask(Snapshot<T> oldSnapshot, Snapshot<T> newSnapshot, OnCalculatedListener<T> listener) {
+            this.oldSnapshot = oldSnapshot;
+            this.newSnapshot = newSnapshot;
+            this.listener = listener;
+        }
+
+        @Override
+        protected DrawerDiff<T> doInBackground(Void... params) {
+            return calculate(oldSnapshot, newSnapshot);
+        }
+
+        @Override
+        protected void onPostExecute(DrawerDiff<T> diff) {
+            listener.onCalculated(diff);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerItem;
+
+/**
+ * Adapter showing only the items of a {@link DrawerAdapter} that match its filter, for lists that bind rows on demand.
+ * Positions of this adapter are mapped to positions of the drawer adapter, so rows are still bound by the drawer adapter.
+ */
+class DrawerFilterAdapter extends BaseAdapter {
+
+    private final DrawerAdapter adapter;
+
+    DrawerFilterAdapter(DrawerAdapter adapter) {
+        this.adapter = adapter;
+        adapter.registerDataSetObserver(new DataSetObserver() {
+            @Override
+            public void onChanged() {
+                notifyDataSetChanged();
+            }
+
+            @Override
+            public void onInvalidated() {
+                notifyDataSetInvalidated();
+            }
+        });
+    }
+
+    @Override
+    public int getCount() {
+        return adapter.getFilteredCount();
+    }
+
+    @Override
+    public DrawerItem getItem(int position) {
+        return adapter.getItem(adapter.getUnfilteredPosition(position));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return adapter.getItemId(adapter.getUnfilteredPosition(position));
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return adapter.hasStableIds();
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        return adapter.getView(adapter.getUnfilteredPosition(position), convertView, parent);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return adapter.getItemViewType(adapter.getUnfilteredPosition(position));
+    }
+
+    @Override
+    public int getViewTypeCount() {
+        return adapter.getViewTypeCount();
+    }
+
+    @Override
+    public boolean areAllItemsEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isEnabled(int position) {
+        return adapter.isEnabled(adapter.getUnfilteredPosition(position));
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerItem;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Index of the words of the primary and secondary texts of drawer items.
+ * Words are normalized by removing accents and converting to lower case in the given locale and are kept sorted,
+ * so all items with a word starting with a prefix are found without scanning the texts of all items.
+ */
+class DrawerFilterIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String[] NO_WORDS = new String[0];
+
+    private final Locale locale;
+
+    private final TreeMap<String, List<DrawerItem>> itemsByWord = new TreeMap<>();
+    private final Map<DrawerItem, String[]> wordsByItem = new IdentityHashMap<>();
+
+    DrawerFilterIndex(Locale locale) {
+        this.locale = locale;
+    }
+
+    /**
+     * Splits a text into normalized words
+     *
+     * @param text Text to split
+     * @return The normalized words, empty if the text contains no letters or digits.
+     */
+    String[] getWords(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return NO_WORDS;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        normalized = COMBINING_MARKS.matcher(normalized).replaceAll("").toLowerCase(locale);
+
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_SEPARATORS.split(normalized)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words.toArray(new String[words.size()]);
+    }
+
+    void add(DrawerItem item) {
+        if (item == null || wordsByItem.containsKey(item)) {
+            return;
+        }
+        String[] primaryWords = getWords(item.getTextPrimary());
+        String[] secondaryWords = getWords(item.getTextSecondary());
+        String[] words = new String[primaryWords.length + secondaryWords.length];
+        System.arraycopy(primaryWords, 0, words, 0, primaryWords.length);
+        System.arraycopy(secondaryWords, 0, words, primaryWords.length, secondaryWords.length);
+
+        wordsByItem.put(item, words);
+        for (String word : words) {
+            List<DrawerItem> items = itemsByWord.get(word);
+            if (items == null) {
+                items = new ArrayList<>(1);
+                itemsByWord.put(word, items);
+            }
+            items.add(item);
+        }
+    }
+
+    void remove(DrawerItem item) {
+        String[] words = wordsByItem.remove(item);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            List<DrawerItem> items = itemsByWord.get(word);
+            if (items != null) {
+                items.remove(item);
+                if (items.isEmpty()) {
+                    itemsByWord.remove(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexes the texts of an item again after they changed
+     */
+    void update(DrawerItem item) {
+        remove(item);
+        add(item);
+    }
+
+    void clear() {
+        itemsByWord.clear();
+        wordsByItem.clear();
+    }
+
+    /**
+     * Gets whether every query word is a prefix of a word of the item
+     */
+    boolean matches(DrawerItem item, String[] query) {
+        String[] words = wordsByItem.get(item);
+        if (words == null) {
+            return false;
+        }
+        for (String prefix : query) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds all items matching a query by looking up the items of the longest query word in the sorted words
+     *
+     * @param query Normalized query words, must not be empty
+     * @return Identity set of the matching items
+     */
+    Set<DrawerItem> find(String[] query) {
+        String longest = query[0];
+        for (String prefix : query) {
+            if (prefix.length() > longest.length()) {
+                longest = prefix;
+            }
+        }
+
+        Set<DrawerItem> matches = Collections.newSetFromMap(new IdentityHashMap<DrawerItem, Boolean>());
+        SortedMap<String, List<DrawerItem>> candidates = itemsByWord.subMap(longest, longest + Character.MAX_VALUE);
+        for (List<DrawerItem> items : candidates.values()) {
+            for (DrawerItem item : items) {
+                if (!matches.contains(item) && matches(item, query)) {
+                    matches.add(item);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Narrows the matches of a previous query to a query that can only match fewer items
+     *
+     * @param previousMatches The matches of the previous query, retained in place
+     * @param query           Normalized query words
+     */
+    void narrow(Set<DrawerItem> previousMatches, String[] query) {
+        List<DrawerItem> mismatches = new ArrayList<>();
+        for (DrawerItem item : previousMatches) {
+            if (!matches(item, query)) {
+                mismatches.add(item);
+            }
+        }
+        for (DrawerItem item : mismatches) {
+            previousMatches.remove(item);
+        }
+    }
+
+    /**
+     * Gets whether a query matches a subset of the items another query matches,
+     * which is the case if every word of the other query is a prefix of the word at the same index.
+     */
+    static boolean isNarrowing(String[] previousQuery, String[] query) {
+        if (previousQuery == null || previousQuery.length == 0 || query.length < previousQuery.length) {
+            return false;
+        }
+        for (int i = 0; i < previousQuery.length; i++) {
+            if (!query[i].startsWith(previousQuery[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
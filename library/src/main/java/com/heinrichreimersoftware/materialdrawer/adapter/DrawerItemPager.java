@@ -0,0 +1,272 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import android.os.AsyncTask;
+import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerItem;
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerPlaceholderItem;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the items of a {@link DrawerItemSource} into a {@link DrawerAdapter} page by page.
+ * <p>
+ * The rows of the source are counted by the adapter without creating them. They are appended as
+ * {@link DrawerPlaceholderItem}s a page at a time, once a row of that page is requested from the adapter,
+ * and a page is loaded on a background thread once a row within the prefetch distance of it is bound.
+ * Loaded items replace the placeholders of their page wherever the placeholders are in the adapter by then.
+ */
+class DrawerItemPager {
+
+    private static final String TAG = "DrawerItemPager";
+
+    private final DrawerAdapter adapter;
+    private final DrawerItemSource source;
+    private final int pageSize;
+    private final int prefetchDistance;
+
+    private final SparseBooleanArray requestedPages = new SparseBooleanArray();
+    private int count = -1;
+    /**
+     * Number of source rows that were appended to the adapter, the remaining rows are only counted
+     */
+    private int createdCount = 0;
+    /**
+     * Placeholders that were appended to the adapter and not replaced yet, by source position
+     */
+    private final SparseArray<DrawerPlaceholderItem> placeholders = new SparseArray<>();
+    /**
+     * Source positions of the rows that were appended to the adapter
+     */
+    private final Map<DrawerItem, Integer> sourcePositions = new IdentityHashMap<>();
+    private boolean released = false;
+
+    DrawerItemPager(DrawerAdapter adapter, DrawerItemSource source, int pageSize, int prefetchDistance) {
+        this.adapter = adapter;
+        this.source = source;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    DrawerItemSource getSource() {
+        return source;
+    }
+
+    /**
+     * Loads the number of items
+     */
+    void start() {
+        new CountTask(this).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * Stops applying loaded pages to the adapter
+     */
+    void release() {
+        released = true;
+    }
+
+    /**
+     * Gets the number of source rows that are counted by the adapter but were not appended to it yet.
+     * These rows always follow the last row of the adapter.
+     *
+     * @return Number of rows
+     */
+    int getVirtualCount() {
+        return released || count <= 0 ? 0 : count - createdCount;
+    }
+
+    /**
+     * Appends the placeholders of the page holding a row that is counted but not appended yet
+     *
+     * @param virtualPosition Position of the row among the rows that are not appended yet
+     */
+    void createRow(int virtualPosition) {
+        int sourcePosition = createdCount + virtualPosition;
+        createRows(Math.min(count, (sourcePosition / pageSize + 1) * pageSize));
+    }
+
+    /**
+     * Appends the placeholders of all rows that were not appended yet, so rows can be added after them
+     */
+    void createAllRows() {
+        createRows(count);
+    }
+
+    private void createRows(int end) {
+        if (released || end <= createdCount) {
+            return;
+        }
+        List<DrawerItem> rows = new ArrayList<>(end - createdCount);
+        for (int sourcePosition = createdCount; sourcePosition < end; sourcePosition++) {
+            DrawerPlaceholderItem placeholder = new DrawerPlaceholderItem(Long.MIN_VALUE + sourcePosition);
+            placeholders.put(sourcePosition, placeholder);
+            sourcePositions.put(placeholder, sourcePosition);
+            rows.add(placeholder);
+        }
+        createdCount = end;
+        adapter.appendRows(rows);
+    }
+
+    /**
+     * Loads the pages within the prefetch distance of a row that is being bound
+     *
+     * @param position Adapter position of the row
+     */
+    void onBind(int position) {
+        if (released || count <= 0) {
+            return;
+        }
+        Integer sourcePosition = sourcePositions.get(adapter.getItem(position));
+        if (sourcePosition == null) {
+            return;
+        }
+        int firstPage = Math.max(0, sourcePosition - prefetchDistance) / pageSize;
+        int lastPage = Math.min(count - 1, sourcePosition + prefetchDistance) / pageSize;
+        for (int page = firstPage; page <= lastPage; page++) {
+            loadPage(page);
+        }
+    }
+
+    private void loadPage(int page) {
+        if (requestedPages.get(page)) {
+            return;
+        }
+        requestedPages.put(page, true);
+        int position = page * pageSize;
+        new LoadTask(this, page, position, Math.min(pageSize, count - position)).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    private void onCountLoaded(int count) {
+        if (released) {
+            return;
+        }
+        this.count = count;
+        if (count > 0) {
+            adapter.notifyDataSetChanged();
+        }
+    }
+
+    private void onPageLoaded(int page, int position, List<DrawerItem> items) {
+        if (released) {
+            return;
+        }
+        if (items == null) {
+            // Allow loading the page again when one of its rows is bound the next time
+            requestedPages.delete(page);
+            return;
+        }
+        createRows(position + items.size());
+
+        List<DrawerPlaceholderItem> replacedPlaceholders = new ArrayList<>(items.size());
+        List<DrawerItem> loadedItems = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            DrawerPlaceholderItem placeholder = placeholders.get(position + i);
+            if (placeholder == null) {
+                continue;
+            }
+            DrawerItem item = items.get(i);
+            if (adapter.findById(item.getId()) != null) {
+                Log.w(TAG, "Skipping item with duplicate ID " + item.getId() + " at " + (position + i) + ".");
+                continue;
+            }
+            placeholders.remove(position + i);
+            sourcePositions.remove(placeholder);
+            sourcePositions.put(item, position + i);
+            replacedPlaceholders.add(placeholder);
+            loadedItems.add(item);
+        }
+        adapter.replacePlaceholders(replacedPlaceholders, loadedItems);
+    }
+
+
+    private static class CountTask extends AsyncTask<Void, Void, Integer> {
+        private final DrawerItemPager pager;
+
+        private CountTask(DrawerItemPager pager) {
+            this.pager = pager;
+        }
+
+        @Override
+        protected Integer doInBackground(Void... params) {
+            try {
+                return Math.max(0, pager.source.getCount());
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Could not count items.", e);
+                return 0;
+            }
+        }
+
+        @Override
+        protected void onPostExecute(Integer count) {
+            pager.onCountLoaded(count);
+        }
+    }
+
+    private static class LoadTask extends AsyncTask<Void, Void, List<DrawerItem>> {
+        private final DrawerItemPager pager;
+        private final int page;
+        private final int position;
+        private final int count;
+
+        private LoadTask(DrawerItemPager pager, int page, int position, int count) {
+            this.pager = pager;
+            this.page = page;
+            this.position = position;
+            this.count = count;
+        }
+
+        @Override
+        protected List<DrawerItem> doInBackground(Void... params) {
+            try {
+                List<DrawerItem> items = pager.source.loadItems(position, count);
+                if (items == null) {
+                    throw new IllegalStateException("Source returned no items.");
+                }
+                for (DrawerItem item : items) {
+                    if (item == null || item.getId() <= 0) {
+                        throw new IllegalStateException("Items of a source must have positive IDs.");
+                    }
+                }
+                return items.size() > count ? new ArrayList<>(items.subList(0, count)) : items;
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Could not load items " + position + " to " + (position + count - 1) + ".", e);
+                return null;
+            }
+        }
+
+        @Override
+        protected void onPostExecute(List<DrawerItem> items) {
+            pager.onPageLoaded(page, position, items);
+        }
+    }
+}
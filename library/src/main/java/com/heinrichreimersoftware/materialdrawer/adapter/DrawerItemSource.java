@@ -0,0 +1,53 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerItem;
+
+import java.util.List;
+
+/**
+ * Source of drawer items that are loaded page by page, for example from a database.
+ * All methods are called on background threads, possibly for several pages at once.
+ * If a page can't be loaded or contains an item without a positive ID, its rows keep their placeholders
+ * and the page is requested again when one of its rows is bound the next time.
+ */
+public interface DrawerItemSource {
+    /**
+     * Gets the total number of items
+     *
+     * @return Number of items
+     */
+    int getCount();
+
+    /**
+     * Loads a page of items
+     *
+     * @param position Position of the first item to load
+     * @param count    Number of items to load
+     * @return The loaded items, each with a positive ID that is unique within the drawer
+     */
+    List<DrawerItem> loadItems(int position, int count);
+}
@@ -0,0 +1,216 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.drawable.Drawable;
+import android.support.v4.content.ContextCompat;
+import android.support.v4.content.res.ResourcesCompat;
+
+import com.heinrichreimersoftware.materialdrawer.R;
+
+import java.util.WeakHashMap;
+
+/**
+ * Dimensions and colors used when binding drawer rows, resolved once per context.
+ * The values are resolved again when the configuration of the context changes.
+ */
+public class DrawerMetrics {
+
+    private static final WeakHashMap<Context, DrawerMetrics> cache = new WeakHashMap<>();
+
+    private final Resources resources;
+    private final Configuration configuration;
+
+    private final int avatarSize;
+    private final int bigAvatarSize;
+    private final int headerWidth;
+    private final int iconSize;
+    private final int baseline;
+    private final int baselineContent;
+    private final int dividerMargin;
+    private final int listItemHeight;
+    private final int listItemMargin;
+    private final float textSizePrimary;
+    private final float textSizeSecondary;
+    private final int dividerColorLight;
+    private final int dividerColorDark;
+
+    private Drawable.ConstantState selectorLight;
+    private Drawable.ConstantState selectorDark;
+
+    private DrawerMetrics(Context context) {
+        resources = context.getResources();
+        configuration = new Configuration(resources.getConfiguration());
+
+        avatarSize = resources.getDimensionPixelSize(R.dimen.md_avatar_size);
+        bigAvatarSize = resources.getDimensionPixelSize(R.dimen.md_big_avatar_size);
+        headerWidth = Math.min(
+                Math.min(resources.getDisplayMetrics().widthPixels, resources.getDisplayMetrics().heightPixels),
+                resources.getDimensionPixelSize(R.dimen.md_drawer_max_width));
+        iconSize = resources.getDimensionPixelSize(R.dimen.md_icon_size);
+        baseline = resources.getDimensionPixelSize(R.dimen.md_baseline);
+        baselineContent = resources.getDimensionPixelSize(R.dimen.md_baseline_content);
+        dividerMargin = resources.getDimensionPixelSize(R.dimen.md_divider_margin);
+        listItemHeight = resources.getDimensionPixelSize(R.dimen.md_list_item_height);
+        listItemMargin = resources.getDimensionPixelSize(R.dimen.md_list_item_margin);
+        textSizePrimary = resolveTextSize(context, R.style.TextAppearance_AppCompat_Subhead);
+        textSizeSecondary = resolveTextSize(context, R.style.TextAppearance_AppCompat_Body1);
+        dividerColorLight = ContextCompat.getColor(context, R.color.md_divider_light);
+        dividerColorDark = ContextCompat.getColor(context, R.color.md_divider_dark);
+    }
+
+    /**
+     * Gets the metrics of a context. Must be called from the main thread.
+     *
+     * @param context The context
+     * @return Metrics resolved for the current configuration of the context
+     */
+    public static DrawerMetrics get(Context context) {
+        DrawerMetrics metrics = cache.get(context);
+        if (metrics == null || metrics.configuration.diff(context.getResources().getConfiguration()) != 0) {
+            metrics = new DrawerMetrics(context);
+            cache.put(context, metrics);
+        }
+        return metrics;
+    }
+
+    /**
+     * Drops the cached metrics of a context, so they are resolved again on the next {@link #get(Context)}
+     *
+     * @param context The context
+     */
+    public static void invalidate(Context context) {
+        cache.remove(context);
+    }
+
+    public int getAvatarSize() {
+        return avatarSize;
+    }
+
+    public int getBigAvatarSize() {
+        return bigAvatarSize;
+    }
+
+    /**
+     * Gets the largest width the profile header can have, which is the drawer width limited by the smaller display dimension
+     *
+     * @return Maximum header width
+     */
+    public int getHeaderWidth() {
+        return headerWidth;
+    }
+
+    /**
+     * Gets the height of the profile header at its largest width, following its 16:9 aspect ratio
+     *
+     * @return Maximum header height
+     */
+    public int getHeaderHeight() {
+        return headerWidth * 9 / 16;
+    }
+
+    public int getIconSize() {
+        return iconSize;
+    }
+
+    public int getBaseline() {
+        return baseline;
+    }
+
+    public int getBaselineContent() {
+        return baselineContent;
+    }
+
+    /**
+     * Gets the width reserved for the image of a row
+     *
+     * @return The distance between the start of the row content and the start of the row text
+     */
+    public int getImageWidth() {
+        return baselineContent - baseline;
+    }
+
+    public int getDividerMargin() {
+        return dividerMargin;
+    }
+
+    public int getListItemHeight() {
+        return listItemHeight;
+    }
+
+    public int getListItemMargin() {
+        return listItemMargin;
+    }
+
+    public float getTextSizePrimary() {
+        return textSizePrimary;
+    }
+
+    public float getTextSizeSecondary() {
+        return textSizeSecondary;
+    }
+
+    public int getDividerColor(boolean lightTheme) {
+        return lightTheme ? dividerColorLight : dividerColorDark;
+    }
+
+    private static float resolveTextSize(Context context, int textAppearance) {
+        TypedArray typedArray = context.obtainStyledAttributes(textAppearance, new int[]{android.R.attr.textSize});
+        try {
+            return typedArray.getDimension(0, 0);
+        } finally {
+            typedArray.recycle();
+        }
+    }
+
+    /**
+     * Gets a selector drawable to use as the foreground of a row.
+     * The selector is only inflated once per theme lightness, the returned drawables share its constant state
+     * and are mutated, so they can be changed independently.
+     *
+     * @param lightTheme Whether the row uses a light theme
+     * @return A new selector drawable
+     */
+    public Drawable getSelector(boolean lightTheme) {
+        Drawable.ConstantState state = lightTheme ? selectorLight : selectorDark;
+        if (state == null) {
+            Drawable selector = ResourcesCompat.getDrawable(resources, lightTheme ? R.drawable.md_selector_light : R.drawable.md_selector_dark, null);
+            if (selector == null || selector.getConstantState() == null) {
+                return selector;
+            }
+            state = selector.getConstantState();
+            if (lightTheme) {
+                selectorLight = state;
+            } else {
+                selectorDark = state;
+            }
+        }
+        return state.newDrawable(resources).mutate();
+    }
+}
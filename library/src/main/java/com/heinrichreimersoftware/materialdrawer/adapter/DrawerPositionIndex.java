@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerItem;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the positions of the top level items of a {@link DrawerAdapter}, where each top level item occupies
+ * its own row and the rows of the visible children of a group.
+ * Positions are prefix sums over a binary indexed tree, so looking up a position and changing the number of rows
+ * of a top level item both take logarithmic time.
+ */
+class DrawerPositionIndex {
+
+    private final Map<DrawerItem, Integer> entries;
+    /**
+     * Binary indexed tree of the row counts, 1-based
+     */
+    private final int[] tree;
+
+    /**
+     * Creates an index in linear time
+     *
+     * @param items     The top level items in list order
+     * @param rowCounts Number of rows each top level item occupies
+     */
+    DrawerPositionIndex(List<DrawerItem> items, int[] rowCounts) {
+        int size = items.size();
+        entries = new IdentityHashMap<>(size);
+        tree = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            entries.put(items.get(i), i);
+            tree[i + 1] += rowCounts[i];
+            int parent = (i + 1) + ((i + 1) & -(i + 1));
+            if (parent <= size) {
+                tree[parent] += tree[i + 1];
+            }
+        }
+    }
+
+    /**
+     * Gets the position of the row of a top level item
+     *
+     * @param item The top level item
+     * @return The position or -1 if the item is not a top level item of this index.
+     */
+    int getPosition(DrawerItem item) {
+        Integer entry = entries.get(item);
+        if (entry == null) {
+            return -1;
+        }
+        int position = 0;
+        for (int i = entry; i > 0; i -= i & -i) {
+            position += tree[i];
+        }
+        return position;
+    }
+
+    /**
+     * Changes the number of rows a top level item occupies
+     *
+     * @param item  The top level item
+     * @param delta Number of rows added, negative if rows were removed
+     * @return True if the item is a top level item of this index, false otherwise.
+     */
+    boolean addRows(DrawerItem item, int delta) {
+        Integer entry = entries.get(item);
+        if (entry == null) {
+            return false;
+        }
+        for (int i = entry + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+        return true;
+    }
+}
@@ -25,16 +25,18 @@
 package com.heinrichreimersoftware.materialdrawer.adapter;
 
 import android.content.Context;
+import android.graphics.Color;
 import android.os.Build;
+import android.support.annotation.LayoutRes;
 import android.support.annotation.NonNull;
-import android.support.v4.content.ContextCompat;
+import android.support.annotation.Nullable;
+import android.support.v4.util.LongSparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 import android.widget.FrameLayout;
 import android.widget.ImageView;
-import android.widget.RelativeLayout;
 import android.widget.TextView;
 
 import com.heinrichreimersoftware.materialdrawer.R;
@@ -42,6 +44,10 @@ import com.heinrichreimersoftware.materialdrawer.structure.DrawerProfile;
 import com.heinrichreimersoftware.materialdrawer.theme.DrawerTheme;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -49,10 +55,43 @@ import java.util.List;
  */
 public class DrawerProfileAdapter extends ArrayAdapter<DrawerProfile> {
 
+    /**
+     * Compares profiles by their IDs and by everything that is displayed for them
+     */
+    public static final DrawerDiff.Callback<DrawerProfile> DIFF_CALLBACK = new DrawerDiff.Callback<DrawerProfile>() {
+        @Override
+        public long getId(DrawerProfile profile) {
+            return profile.getId();
+        }
+
+        /**
+         * Themes and images are compared by identity, as neither defines equality
+         */
+        @Override
+        public Object getContents(DrawerProfile profile) {
+            return Arrays.asList(profile.getDrawerTheme(), profile.getAvatar(), profile.getBackground(),
+                    profile.getName(), profile.getDescription());
+        }
+    };
+
     private DrawerTheme drawerTheme;
 
+    private final LongSparseArray<DrawerProfile> profilesById = new LongSparseArray<>();
+    private List<DrawerProfile> profilesSnapshot;
+
+    private DrawerRowPool rowPool;
+
+    private int batchDepth = 0;
+    private boolean batchChanged = false;
+
+    private DrawerAdapter.NotifyScheduler notifyScheduler;
+    private boolean notifyPending = false;
+
     public DrawerProfileAdapter(Context context, List<DrawerProfile> dataSet) {
         super(context, R.layout.md_drawer_item, dataSet);
+        for (DrawerProfile profile : dataSet) {
+            profilesById.put(profile.getId(), profile);
+        }
     }
 
     @NonNull
@@ -60,31 +99,30 @@ public class DrawerProfileAdapter extends ArrayAdapter<DrawerProfile> {
     public View getView(int position, View convertView, @NonNull ViewGroup parent) {
         DrawerProfile drawerProfile = getItem(position);
         DrawerTheme drawerTheme = this.drawerTheme;
-
-        assert drawerProfile != null;
+        DrawerMetrics metrics = DrawerMetrics.get(getContext());
 
         if (drawerProfile.hasDrawerTheme()) {
             drawerTheme = drawerProfile.getDrawerTheme();
         }
 
-        if (convertView == null || !(convertView instanceof RelativeLayout)) {
-            convertView = LayoutInflater.from(getContext()).inflate(R.layout.md_drawer_item, parent, false);
+        if (convertView == null || !(convertView instanceof FrameLayout)) {
+            convertView = inflateRow(R.layout.md_drawer_item, parent);
         }
 
-        final ViewHolder viewHolder = new ViewHolder(convertView);
+        final ViewHolder viewHolder = ViewHolder.get(convertView);
 
         int textColorPrimary = drawerTheme.getTextColorPrimary();
 
-        if (drawerTheme.isLightTheme()) {
-            viewHolder.getRoot().setForeground(ContextCompat.getDrawable(getContext(), R.drawable.md_selector_light));
-        } else {
-            viewHolder.getRoot().setForeground(ContextCompat.getDrawable(getContext(), R.drawable.md_selector_dark));
+        Boolean selectorLight = (Boolean) viewHolder.getRoot().getTag(R.id.mdSelectorLight);
+        if (selectorLight == null || selectorLight != drawerTheme.isLightTheme()) {
+            viewHolder.getRoot().setForeground(metrics.getSelector(drawerTheme.isLightTheme()));
+            viewHolder.getRoot().setTag(R.id.mdSelectorLight, drawerTheme.isLightTheme());
         }
 
         if (drawerTheme.getBackgroundColor() != 0) {
             viewHolder.getRoot().setBackgroundColor(drawerTheme.getBackgroundColor());
         } else {
-            viewHolder.getRoot().setBackgroundColor(ContextCompat.getColor(getContext(), android.R.color.transparent));
+            viewHolder.getRoot().setBackgroundColor(Color.TRANSPARENT);
         }
 
         if (position == 0) {
@@ -102,10 +140,10 @@ public class DrawerProfileAdapter extends ArrayAdapter<DrawerProfile> {
             viewHolder.getImageView().setImageDrawable(drawerProfile.getAvatar());
 
             ViewGroup.MarginLayoutParams layoutParams = (ViewGroup.MarginLayoutParams) viewHolder.getImageView().getLayoutParams();
-            layoutParams.height = getContext().getResources().getDimensionPixelSize(R.dimen.md_avatar_size);
-            layoutParams.width = getContext().getResources().getDimensionPixelSize(R.dimen.md_baseline_content) - getContext().getResources().getDimensionPixelSize(R.dimen.md_baseline);
+            layoutParams.height = metrics.getAvatarSize();
+            layoutParams.width = metrics.getImageWidth();
 
-            int imagePaddingEnd = getContext().getResources().getDimensionPixelSize(R.dimen.md_baseline_content) - getContext().getResources().getDimensionPixelSize(R.dimen.md_baseline) - getContext().getResources().getDimensionPixelSize(R.dimen.md_avatar_size);
+            int imagePaddingEnd = metrics.getImageWidth() - metrics.getAvatarSize();
 
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
                 viewHolder.getImageView().setPaddingRelative(0, 0, imagePaddingEnd, 0);
@@ -133,6 +171,9 @@ public class DrawerProfileAdapter extends ArrayAdapter<DrawerProfile> {
             viewHolder.getTextViewPrimary().setText(drawerProfile.getDescription());
             viewHolder.getTextViewPrimary().setTextColor(textColorPrimary);
 
+            viewHolder.getTextViewSecondary().setVisibility(View.GONE);
+        } else {
+            viewHolder.getTextViewPrimary().setText(null);
             viewHolder.getTextViewSecondary().setVisibility(View.GONE);
         }
 
@@ -144,17 +185,232 @@ public class DrawerProfileAdapter extends ArrayAdapter<DrawerProfile> {
         return position != 0;
     }
 
+    /**
+     * Profile IDs are only stable while no two profiles of this adapter share an ID,
+     * e.g. profiles added without assigning IDs all have the default ID.
+     * Every profile is put into the ID index, so the IDs are unique if the index holds an entry for every profile.
+     * Otherwise the index is rebuilt first, as profiles that shared an ID may have been removed or changed their ID since.
+     */
+    @Override
+    public boolean hasStableIds() {
+        int count = getCount();
+        if (profilesById.size() != count) {
+            profilesById.clear();
+            for (int i = 0; i < count; i++) {
+                DrawerProfile profile = getItem(i);
+                if (profile != null) {
+                    profilesById.put(profile.getId(), profile);
+                }
+            }
+        }
+        return profilesById.size() == count;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        DrawerProfile profile = getItem(position);
+        return profile != null ? profile.getId() : position;
+    }
+
+    @Override
+    public void add(@Nullable DrawerProfile profile) {
+        profilesSnapshot = null;
+        putInIndex(profile);
+        super.add(profile);
+    }
+
+    @Override
+    public void addAll(@NonNull Collection<? extends DrawerProfile> collection) {
+        profilesSnapshot = null;
+        for (DrawerProfile profile : collection) {
+            putInIndex(profile);
+        }
+        super.addAll(collection);
+    }
+
+    @Override
+    public void addAll(DrawerProfile... profiles) {
+        profilesSnapshot = null;
+        for (DrawerProfile profile : profiles) {
+            putInIndex(profile);
+        }
+        super.addAll(profiles);
+    }
+
+    @Override
+    public void insert(@Nullable DrawerProfile profile, int index) {
+        profilesSnapshot = null;
+        putInIndex(profile);
+        super.insert(profile, index);
+    }
+
+    @Override
+    public void remove(@Nullable DrawerProfile profile) {
+        profilesSnapshot = null;
+        removeFromIndex(profile);
+        super.remove(profile);
+    }
+
+    @Override
+    public void clear() {
+        profilesSnapshot = null;
+        profilesById.clear();
+        super.clear();
+    }
+
+    @Override
+    public void sort(@NonNull Comparator<? super DrawerProfile> comparator) {
+        profilesSnapshot = null;
+        super.sort(comparator);
+    }
+
+    /**
+     * Gets the profile with the given ID without scanning the list
+     *
+     * @param id The profile ID
+     * @return The profile or {@code null} if there is no profile with that ID.
+     */
+    @Nullable
+    public DrawerProfile findById(long id) {
+        return profilesById.get(id);
+    }
+
+    /**
+     * Updates the ID index after the ID of a contained profile changed
+     *
+     * @param profile The profile
+     * @return Whether the profile is contained in the adapter
+     */
+    public boolean onIdChanged(DrawerProfile profile) {
+        if (profilesById.get(profile.getId()) == profile) {
+            return true;
+        }
+        int index = profilesById.indexOfValue(profile);
+        if (index >= 0) {
+            profilesById.removeAt(index);
+        }
+        if (getPosition(profile) < 0) {
+            return false;
+        }
+        profilesById.put(profile.getId(), profile);
+        return true;
+    }
+
+    private void putInIndex(DrawerProfile profile) {
+        if (profile != null) {
+            profilesById.put(profile.getId(), profile);
+        }
+    }
+
+    private void removeFromIndex(DrawerProfile profile) {
+        if (profile != null && profilesById.get(profile.getId()) == profile) {
+            profilesById.remove(profile.getId());
+        }
+    }
+
+    /**
+     * Starts collecting changes. Data set change notifications are held back until the matching {@link #endBatch()}.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Ends collecting changes and notifies the observers once if anything changed since {@link #beginBatch()}.
+     */
+    public void endBatch() {
+        if (batchDepth > 0 && --batchDepth == 0 && batchChanged) {
+            batchChanged = false;
+            notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Gets whether changes are currently collected
+     *
+     * @return True if a batch is in progress, false otherwise.
+     */
+    public boolean isInBatch() {
+        return batchDepth > 0;
+    }
+
+    @Override
+    public void notifyDataSetChanged() {
+        if (batchDepth > 0) {
+            batchChanged = true;
+            return;
+        }
+        if (notifyScheduler != null) {
+            notifyPending = true;
+            notifyScheduler.scheduleNotify(this);
+            return;
+        }
+        super.notifyDataSetChanged();
+    }
+
+    /**
+     * Sets a scheduler data set change notifications are handed to instead of notifying the observers immediately.
+     * Removing the scheduler dispatches a pending notification.
+     *
+     * @param notifyScheduler Scheduler to use or {@code null} to notify immediately
+     */
+    public void setNotifyScheduler(DrawerAdapter.NotifyScheduler notifyScheduler) {
+        this.notifyScheduler = notifyScheduler;
+        if (notifyScheduler == null) {
+            dispatchPendingNotify();
+        }
+    }
+
+    /**
+     * Notifies the observers of the data set change held back for the scheduler, if any
+     */
+    public void dispatchPendingNotify() {
+        if (notifyPending) {
+            notifyPending = false;
+            super.notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Sets the pool new rows are taken from before they are inflated
+     *
+     * @param rowPool Pool to use or {@code null} to always inflate rows
+     */
+    public void setRowPool(DrawerRowPool rowPool) {
+        this.rowPool = rowPool;
+    }
+
+    public DrawerRowPool getRowPool() {
+        return rowPool;
+    }
+
+    private View inflateRow(@LayoutRes int layout, ViewGroup parent) {
+        if (rowPool != null) {
+            return rowPool.obtain(layout, parent);
+        }
+        return LayoutInflater.from(getContext()).inflate(layout, parent, false);
+    }
+
     public void setDrawerTheme(DrawerTheme theme) {
         this.drawerTheme = theme;
         notifyDataSetChanged();
     }
 
+    /**
+     * Gets an unmodifiable snapshot of all profiles.
+     * The snapshot is only copied again after the profiles changed, so repeated calls don't allocate.
+     *
+     * @return Unmodifiable list of the profiles
+     */
     public List<DrawerProfile> getItems() {
-        List<DrawerProfile> items = new ArrayList<>();
-        for (int i = 0; i < getCount(); i++) {
-            items.add(getItem(i));
+        if (profilesSnapshot == null) {
+            List<DrawerProfile> profiles = new ArrayList<>(getCount());
+            for (int i = 0; i < getCount(); i++) {
+                profiles.add(getItem(i));
+            }
+            profilesSnapshot = Collections.unmodifiableList(profiles);
         }
-        return items;
+        return profilesSnapshot;
     }
 
     private static class ViewHolder {
@@ -163,6 +419,22 @@ public class DrawerProfileAdapter extends ArrayAdapter<DrawerProfile> {
         private final TextView mTextViewPrimary;
         private final TextView mTextViewSecondary;
 
+        /**
+         * Gets the holder stored in a row or creates and stores a new one, so each row only looks up its views once
+         *
+         * @param root The root view of the row
+         * @return The holder of the row
+         */
+        public static ViewHolder get(View root) {
+            Object tag = root.getTag();
+            if (tag instanceof ViewHolder) {
+                return (ViewHolder) tag;
+            }
+            ViewHolder holder = new ViewHolder(root);
+            root.setTag(holder);
+            return holder;
+        }
+
         public ViewHolder(View root) {
             mRoot = (FrameLayout) root;
             mImageView = (ImageView) root.findViewById(R.id.mdImage);
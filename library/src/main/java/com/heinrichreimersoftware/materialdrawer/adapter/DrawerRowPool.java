@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import android.content.Context;
+import android.support.annotation.LayoutRes;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.AsyncLayoutInflater;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+
+import com.heinrichreimersoftware.materialdrawer.R;
+
+import java.util.ArrayList;
+
+/**
+ * Pool of drawer rows that are inflated on a background thread ahead of time,
+ * so the adapters don't need to inflate them on the main thread when the drawer is first shown.
+ * Create the pool as early as possible, e.g. in {@code onCreate()} before the content view is set,
+ * and pass it to {@link com.heinrichreimersoftware.materialdrawer.DrawerView#setRowPool(DrawerRowPool)}.
+ */
+public class DrawerRowPool {
+
+    private final Context context;
+    private final AsyncLayoutInflater asyncInflater;
+    /**
+     * Parent used to generate layout parameters for rows, rows are never attached to it
+     */
+    private final ViewGroup parent;
+
+    private final SparseArray<ArrayList<View>> rows = new SparseArray<>();
+
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    private final AsyncLayoutInflater.OnInflateFinishedListener onInflateFinishedListener = new AsyncLayoutInflater.OnInflateFinishedListener() {
+        @Override
+        public void onInflateFinished(@NonNull View view, int resid, @Nullable ViewGroup parent) {
+            getRows(resid).add(view);
+        }
+    };
+
+    /**
+     * Creates a new pool. Must be called from the main thread.
+     *
+     * @param context The context rows are inflated with, usually the activity that shows the drawer
+     */
+    public DrawerRowPool(Context context) {
+        this.context = context;
+        this.asyncInflater = new AsyncLayoutInflater(context);
+        this.parent = new LinearLayout(context);
+    }
+
+    /**
+     * Inflates drawer item rows on a background thread
+     *
+     * @param count Number of rows to inflate
+     */
+    public DrawerRowPool preinflateItemRows(int count) {
+        preinflate(R.layout.md_drawer_item, count);
+        return this;
+    }
+
+    /**
+     * Inflates header and divider rows on a background thread
+     *
+     * @param count Number of rows to inflate
+     */
+    public DrawerRowPool preinflateHeaderRows(int count) {
+        preinflate(R.layout.md_drawer_header_item, count);
+        return this;
+    }
+
+    private void preinflate(@LayoutRes int layout, int count) {
+        for (int i = 0; i < count; i++) {
+            asyncInflater.inflate(layout, parent, onInflateFinishedListener);
+        }
+    }
+
+    /**
+     * Takes a pre-inflated row out of the pool or inflates a new one if the pool is empty
+     *
+     * @param layout The row layout
+     * @param parent The parent the row will be attached to
+     * @return A row inflated from the layout
+     */
+    public View obtain(@LayoutRes int layout, ViewGroup parent) {
+        ArrayList<View> rows = this.rows.get(layout);
+        if (rows != null && !rows.isEmpty()) {
+            hitCount++;
+            return rows.remove(rows.size() - 1);
+        }
+        missCount++;
+        return LayoutInflater.from(context).inflate(layout, parent, false);
+    }
+
+    private ArrayList<View> getRows(@LayoutRes int layout) {
+        ArrayList<View> rows = this.rows.get(layout);
+        if (rows == null) {
+            rows = new ArrayList<>();
+            this.rows.put(layout, rows);
+        }
+        return rows;
+    }
+
+    /**
+     * Gets the number of pre-inflated item rows that are ready to be used
+     *
+     * @return Number of item rows in the pool
+     */
+    public int getItemRowCount() {
+        return getRows(R.layout.md_drawer_item).size();
+    }
+
+    /**
+     * Gets the number of pre-inflated header rows that are ready to be used
+     *
+     * @return Number of header rows in the pool
+     */
+    public int getHeaderRowCount() {
+        return getRows(R.layout.md_drawer_header_item).size();
+    }
+
+    /**
+     * Gets how many rows were taken from the pool
+     *
+     * @return Number of rows that didn't need to be inflated on the main thread
+     */
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets how many rows had to be inflated because the pool was empty
+     *
+     * @return Number of rows inflated on the main thread
+     */
+    public int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Resets the hit and miss counters
+     */
+    public DrawerRowPool resetCounters() {
+        hitCount = 0;
+        missCount = 0;
+        return this;
+    }
+
+    /**
+     * Drops all pre-inflated rows
+     */
+    public DrawerRowPool clear() {
+        rows.clear();
+        return this;
+    }
+}
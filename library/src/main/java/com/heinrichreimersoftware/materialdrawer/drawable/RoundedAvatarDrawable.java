@@ -18,6 +18,7 @@ package com.heinrichreimersoftware.materialdrawer.drawable;
 import android.graphics.Bitmap;
 import android.graphics.BitmapShader;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.ColorFilter;
 import android.graphics.Paint;
 import android.graphics.PixelFormat;
@@ -26,8 +27,11 @@ import android.graphics.RectF;
 import android.graphics.Shader;
 import android.graphics.drawable.Drawable;
 
+import com.heinrichreimersoftware.materialdrawer.image.DrawerBitmapCache;
+
 /**
- * A Drawable that draws an oval with given {@link Bitmap}
+ * A Drawable that draws an oval with given {@link Bitmap}.
+ * In pre-rasterized mode the oval is drawn into a cached bitmap once and only that bitmap is drawn afterwards.
  */
 public class RoundedAvatarDrawable extends Drawable {
     private final Bitmap mBitmap;
@@ -36,6 +40,11 @@ public class RoundedAvatarDrawable extends Drawable {
     private final int mBitmapWidth;
     private final int mBitmapHeight;
 
+    private boolean mPreRasterized = false;
+    private int mSizeBucket = 1;
+    private Bitmap mRaster;
+    private final Paint mRasterPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
     public RoundedAvatarDrawable(Bitmap bitmap) {
         mBitmap = bitmap;
         mRectF = new RectF();
@@ -50,9 +59,90 @@ public class RoundedAvatarDrawable extends Drawable {
         mBitmapHeight = mBitmap.getHeight();
     }
 
+    /**
+     * Creates an avatar drawn from the bitmap scaled down to the given size, sharing the scaled bitmap through the {@link DrawerBitmapCache}
+     *
+     * @param bitmap The full size bitmap
+     * @param size   Size in pixels the avatar is shown at
+     */
+    public RoundedAvatarDrawable(Bitmap bitmap, int size) {
+        this(DrawerBitmapCache.getInstance().getScaled(bitmap, size, size));
+    }
+
     @Override
     public void draw(Canvas canvas) {
-        canvas.drawOval(mRectF, mPaint);
+        if (mPreRasterized && mRaster != null) {
+            canvas.drawBitmap(mRaster, getBounds().left, getBounds().top, mRasterPaint);
+        } else {
+            canvas.drawOval(mRectF, mPaint);
+        }
+    }
+
+    /**
+     * Draws the oval at its bounds into the cached bitmap, which is only allocated again if the bounds moved to another size bucket.
+     * The oval is drawn at the top left of the cached bitmap, so the bitmap is drawn at its real size.
+     */
+    private void updateRaster() {
+        Rect bounds = getBounds();
+        if (!mPreRasterized || bounds.isEmpty()) {
+            mRaster = null;
+            return;
+        }
+        int width = roundUpToBucket(bounds.width());
+        int height = roundUpToBucket(bounds.height());
+        if (mRaster == null || mRaster.getWidth() != width || mRaster.getHeight() != height) {
+            mRaster = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        } else {
+            mRaster.eraseColor(Color.TRANSPARENT);
+        }
+
+        Paint paint = new Paint(mPaint);
+        paint.setAlpha(255);
+        paint.setColorFilter(null);
+        Canvas canvas = new Canvas(mRaster);
+        canvas.translate(-bounds.left, -bounds.top);
+        canvas.drawOval(mRectF, paint);
+    }
+
+    private int roundUpToBucket(int size) {
+        return (size + mSizeBucket - 1) / mSizeBucket * mSizeBucket;
+    }
+
+    /**
+     * Sets whether the oval should be drawn into a cached bitmap once, so drawing the avatar again, for example in every frame
+     * of an animation of its view, only draws that bitmap instead of an anti-aliased oval
+     *
+     * @param preRasterized True to draw a cached bitmap, false to draw the oval each time.
+     */
+    public RoundedAvatarDrawable setPreRasterized(boolean preRasterized) {
+        mPreRasterized = preRasterized;
+        updateRaster();
+        invalidateSelf();
+        return this;
+    }
+
+    public boolean isPreRasterized() {
+        return mPreRasterized;
+    }
+
+    /**
+     * Sets the size step the cached bitmap of the pre-rasterized mode is rounded up to.
+     * Bounds changes within the same step draw the oval into the cached bitmap again instead of allocating a new one.
+     *
+     * @param sizeBucket Size step in pixels
+     */
+    public RoundedAvatarDrawable setSizeBucket(int sizeBucket) {
+        if (sizeBucket <= 0) {
+            throw new IllegalArgumentException("Size bucket must be positive.");
+        }
+        mSizeBucket = sizeBucket;
+        updateRaster();
+        invalidateSelf();
+        return this;
+    }
+
+    public int getSizeBucket() {
+        return mSizeBucket;
     }
 
     @Override
@@ -60,12 +150,14 @@ public class RoundedAvatarDrawable extends Drawable {
         super.onBoundsChange(bounds);
 
         mRectF.set(bounds);
+        updateRaster();
     }
 
     @Override
     public void setAlpha(int alpha) {
         if (mPaint.getAlpha() != alpha) {
             mPaint.setAlpha(alpha);
+            mRasterPaint.setAlpha(alpha);
             invalidateSelf();
         }
     }
@@ -73,6 +165,7 @@ public class RoundedAvatarDrawable extends Drawable {
     @Override
     public void setColorFilter(ColorFilter cf) {
         mPaint.setColorFilter(cf);
+        mRasterPaint.setColorFilter(cf);
     }
 
     @Override
@@ -92,12 +185,15 @@ public class RoundedAvatarDrawable extends Drawable {
 
     public void setAntiAlias(boolean aa) {
         mPaint.setAntiAlias(aa);
+        updateRaster();
         invalidateSelf();
     }
 
     @Override
     public void setFilterBitmap(boolean filter) {
         mPaint.setFilterBitmap(filter);
+        mRasterPaint.setFilterBitmap(filter);
+        updateRaster();
         invalidateSelf();
     }
 
@@ -0,0 +1,220 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.image;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.support.v4.graphics.BitmapCompat;
+import android.support.v4.util.LruCache;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Process-wide memory cache of the bitmaps shown by drawers, keyed by their source and the size they were scaled to.
+ * An image shown at the same size in the profile header, the profile list and drawer items is only held once,
+ * and the cache never holds more bytes than its budget.
+ */
+public class DrawerBitmapCache {
+
+    private static final int DEFAULT_MAX_SIZE = (int) Math.min(Runtime.getRuntime().maxMemory() / 16, Integer.MAX_VALUE);
+
+    private static DrawerBitmapCache instance;
+
+    private LruCache<String, Bitmap> cache = createCache(DEFAULT_MAX_SIZE);
+
+    /**
+     * Sources of bitmaps passed in directly, so scaled variants of the same bitmap instance are found again
+     */
+    private final WeakHashMap<Bitmap, String> bitmapSources = new WeakHashMap<>();
+    private int nextBitmapSource = 0;
+
+    private DrawerBitmapCache() {
+    }
+
+    /**
+     * Gets the cache shared by all drawers of the process
+     *
+     * @return The shared cache
+     */
+    public static synchronized DrawerBitmapCache getInstance() {
+        if (instance == null) {
+            instance = new DrawerBitmapCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the cache key of a source at a target size
+     *
+     * @param source Identifier of the source, for example a URI
+     * @param width  Target width
+     * @param height Target height
+     * @return The cache key
+     */
+    public static String getKey(String source, int width, int height) {
+        return source + '@' + width + 'x' + height;
+    }
+
+    /**
+     * Sets the number of bytes the cache may hold. Least recently used bitmaps are dropped if the cache is larger.
+     *
+     * @param maxSize Budget in bytes
+     */
+    public synchronized void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive.");
+        }
+        LruCache<String, Bitmap> oldCache = cache;
+        cache = createCache(maxSize);
+        for (Map.Entry<String, Bitmap> entry : oldCache.snapshot().entrySet()) {
+            cache.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Gets the number of bytes the cache may hold
+     *
+     * @return Budget in bytes
+     */
+    public synchronized int getMaxSize() {
+        return cache.maxSize();
+    }
+
+    /**
+     * Gets the number of bytes the cached bitmaps take up
+     *
+     * @return Size in bytes
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Gets a cached bitmap
+     *
+     * @param source Identifier of the source
+     * @param width  Target width
+     * @param height Target height
+     * @return The bitmap or {@code null} if it isn't cached.
+     */
+    public synchronized Bitmap get(String source, int width, int height) {
+        return cache.get(getKey(source, width, height));
+    }
+
+    /**
+     * Caches a bitmap
+     *
+     * @param source Identifier of the source
+     * @param width  Target width the bitmap was scaled to
+     * @param height Target height the bitmap was scaled to
+     * @param bitmap The bitmap
+     */
+    public synchronized void put(String source, int width, int height, Bitmap bitmap) {
+        cache.put(getKey(source, width, height), bitmap);
+    }
+
+    /**
+     * Removes a cached bitmap if it is still cached for the source and target size
+     *
+     * @param source Identifier of the source
+     * @param width  Target width
+     * @param height Target height
+     * @param bitmap The bitmap
+     * @return True if the bitmap was removed, false otherwise.
+     */
+    public synchronized boolean remove(String source, int width, int height, Bitmap bitmap) {
+        String key = getKey(source, width, height);
+        if (cache.get(key) != bitmap) {
+            return false;
+        }
+        cache.remove(key);
+        return true;
+    }
+
+    /**
+     * Gets a bitmap scaled down to cover the target size, from the cache if the same bitmap was scaled to that size before.
+     * Bitmaps smaller than the target size are not scaled up.
+     *
+     * @param bitmap The bitmap to scale
+     * @param width  Target width
+     * @param height Target height
+     * @return The scaled bitmap, which may be the given bitmap itself
+     */
+    public Bitmap getScaled(Bitmap bitmap, int width, int height) {
+        String source;
+        synchronized (this) {
+            source = bitmapSources.get(bitmap);
+            if (source == null) {
+                source = "bitmap:" + nextBitmapSource++;
+                bitmapSources.put(bitmap, source);
+            }
+        }
+        source += ':' + bitmap.getGenerationId();
+
+        Bitmap scaled = get(source, width, height);
+        if (scaled == null) {
+            scaled = scale(bitmap, width, height);
+            put(source, width, height, scaled);
+        }
+        return scaled;
+    }
+
+    /**
+     * Drops all cached bitmaps
+     */
+    public synchronized void evictAll() {
+        cache.evictAll();
+    }
+
+    /**
+     * Scales a bitmap down so that it still covers the target size, into a bitmap from the {@link DrawerBitmapPool}
+     */
+    static Bitmap scale(Bitmap bitmap, int width, int height) {
+        float scale = Math.max((float) width / bitmap.getWidth(), (float) height / bitmap.getHeight());
+        if (scale >= 1) {
+            return bitmap;
+        }
+        int scaledWidth = Math.max(1, Math.round(bitmap.getWidth() * scale));
+        int scaledHeight = Math.max(1, Math.round(bitmap.getHeight() * scale));
+        Bitmap.Config config = bitmap.getConfig() != null ? bitmap.getConfig() : Bitmap.Config.ARGB_8888;
+        Bitmap scaled = DrawerBitmapPool.getInstance().get(scaledWidth, scaledHeight, config);
+        scaled.setDensity(bitmap.getDensity());
+        scaled.setHasAlpha(bitmap.hasAlpha());
+        new Canvas(scaled).drawBitmap(bitmap, null, new Rect(0, 0, scaledWidth, scaledHeight), new Paint(Paint.FILTER_BITMAP_FLAG));
+        return scaled;
+    }
+
+    private static LruCache<String, Bitmap> createCache(int maxSize) {
+        return new LruCache<String, Bitmap>(maxSize) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return BitmapCompat.getAllocationByteCount(bitmap);
+            }
+        };
+    }
+}
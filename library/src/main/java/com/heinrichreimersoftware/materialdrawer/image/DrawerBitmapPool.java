@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.image;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.os.Build;
+import android.support.v4.graphics.BitmapCompat;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Process-wide pool of bitmaps that are not drawn anymore, so decoding and scaling drawer images can reuse their memory
+ * instead of allocating new bitmaps.
+ * The oldest bitmaps are dropped once the pool holds more bytes than its budget.
+ */
+public class DrawerBitmapPool {
+
+    private static final int DEFAULT_MAX_SIZE = (int) Math.min(Runtime.getRuntime().maxMemory() / 32, Integer.MAX_VALUE);
+
+    private static DrawerBitmapPool instance;
+
+    /**
+     * Pooled bitmaps, the most recently added last
+     */
+    private final LinkedList<Bitmap> bitmaps = new LinkedList<>();
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private int size = 0;
+
+    private DrawerBitmapPool() {
+    }
+
+    /**
+     * Gets the pool shared by all drawers of the process
+     *
+     * @return The shared pool
+     */
+    public static synchronized DrawerBitmapPool getInstance() {
+        if (instance == null) {
+            instance = new DrawerBitmapPool();
+        }
+        return instance;
+    }
+
+    /**
+     * Sets the number of bytes the pool may hold. The oldest bitmaps are dropped if the pool is larger.
+     *
+     * @param maxSize Budget in bytes
+     */
+    public synchronized void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Max size must not be negative.");
+        }
+        this.maxSize = maxSize;
+        trimToSize();
+    }
+
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the number of bytes the pooled bitmaps take up
+     *
+     * @return Size in bytes
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Adds a bitmap to the pool. The bitmap must not be drawn or changed by the caller anymore.
+     * Immutable and recycled bitmaps are ignored.
+     *
+     * @param bitmap The bitmap
+     */
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || !bitmap.isMutable() || bitmap.isRecycled() || bitmaps.contains(bitmap)) {
+            return;
+        }
+        bitmaps.addLast(bitmap);
+        size += BitmapCompat.getAllocationByteCount(bitmap);
+        trimToSize();
+    }
+
+    /**
+     * Gets a cleared, mutable bitmap, reusing a pooled bitmap if one fits
+     *
+     * @param width  Width of the bitmap
+     * @param height Height of the bitmap
+     * @param config Config of the bitmap
+     * @return A pooled or new bitmap
+     */
+    public Bitmap get(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = remove(width, height, config, width, height, true);
+        if (bitmap == null) {
+            return Bitmap.createBitmap(width, height, config);
+        }
+        if (bitmap.getWidth() != width || bitmap.getHeight() != height || bitmap.getConfig() != config) {
+            reconfigure(bitmap, width, height, config);
+        }
+        bitmap.eraseColor(Color.TRANSPARENT);
+        return bitmap;
+    }
+
+    /**
+     * Sets a pooled bitmap the image can be decoded into as {@link BitmapFactory.Options#inBitmap}.
+     * The options must contain the bounds of the image and the sample size it is decoded with.
+     * Before KitKat only bitmaps of the same size as the image can be reused, and only without sampling.
+     */
+    void setInBitmap(BitmapFactory.Options options) {
+        options.inMutable = true;
+        Bitmap.Config config = options.inPreferredConfig != null ? options.inPreferredConfig : Bitmap.Config.ARGB_8888;
+        int sampleSize = Math.max(1, options.inSampleSize);
+        int width = (options.outWidth + sampleSize - 1) / sampleSize;
+        int height = (options.outHeight + sampleSize - 1) / sampleSize;
+        options.inBitmap = remove(options.outWidth, options.outHeight, config, width, height, sampleSize == 1);
+    }
+
+    /**
+     * Drops all pooled bitmaps
+     */
+    public synchronized void clear() {
+        bitmaps.clear();
+        size = 0;
+    }
+
+    /**
+     * Removes the most recently added bitmap that can hold an image of the given size
+     */
+    private synchronized Bitmap remove(int exactWidth, int exactHeight, Bitmap.Config config, int width, int height, boolean exactAllowed) {
+        int byteCount = width * height * getBytesPerPixel(config);
+        for (Iterator<Bitmap> iterator = bitmaps.descendingIterator(); iterator.hasNext(); ) {
+            Bitmap bitmap = iterator.next();
+            boolean fits;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                fits = BitmapCompat.getAllocationByteCount(bitmap) >= byteCount;
+            } else {
+                fits = exactAllowed && bitmap.getWidth() == exactWidth && bitmap.getHeight() == exactHeight && bitmap.getConfig() == config;
+            }
+            if (fits) {
+                iterator.remove();
+                size -= BitmapCompat.getAllocationByteCount(bitmap);
+                return bitmap;
+            }
+        }
+        return null;
+    }
+
+    private void trimToSize() {
+        while (size > maxSize && !bitmaps.isEmpty()) {
+            size -= BitmapCompat.getAllocationByteCount(bitmaps.removeFirst());
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    private static void reconfigure(Bitmap bitmap, int width, int height, Bitmap.Config config) {
+        bitmap.reconfigure(width, height, config);
+    }
+
+    private static int getBytesPerPixel(Bitmap.Config config) {
+        switch (config) {
+            case ALPHA_8:
+                return 1;
+            case RGB_565:
+            case ARGB_4444:
+                return 2;
+            default:
+                return 4;
+        }
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.image;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Disk cache of downsampled drawer images, so they don't need to be decoded from their full size source again on the next launch.
+ * The least recently used images are deleted once the cache is larger than its maximum size.
+ * <p>
+ * Every change is recorded in a journal before and after the image file is written, and images are written to a temporary file first,
+ * so an interrupted write never leaves a partial image in the cache.
+ * <p>
+ * Entries are keyed by the URI the image was loaded from, so if the content behind a URI changes, call {@link #evictAll()}.
+ * <p>
+ * There is only one cache per directory, as two caches writing the same journal would corrupt it.
+ */
+public class DrawerDiskCache {
+
+    private static final String TAG = "DrawerDiskCache";
+
+    private static final String DIRECTORY_NAME = "material-drawer";
+    private static final String JOURNAL_FILE = "journal";
+    private static final String JOURNAL_FILE_TEMP = "journal.tmp";
+
+    private static final String DIRTY = "DIRTY";
+    private static final String CLEAN = "CLEAN";
+    private static final String REMOVE = "REMOVE";
+    private static final String READ = "READ";
+
+    private static final int REDUNDANT_OP_COMPACT_THRESHOLD = 2000;
+    private static final int JPEG_QUALITY = 90;
+
+    /**
+     * Caches by the canonical path of their directory
+     */
+    private static final Map<String, DrawerDiskCache> instances = new HashMap<>();
+
+    private final File directory;
+    private final long maxSize;
+
+    /**
+     * Sizes of the clean entries by file name, in access order
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(0, 0.75f, true);
+    private long size = 0;
+    private Writer journalWriter;
+    private int redundantOpCount = 0;
+
+    private DrawerDiskCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the disk cache in a directory, creating it on the first call. The directory is only read when the cache is used first.
+     *
+     * @param directory Directory used only by this cache
+     * @param maxSize   Maximum size in bytes
+     * @return The disk cache
+     * @throws IllegalArgumentException if the cache in the directory was created with a different maximum size
+     */
+    public static DrawerDiskCache create(File directory, long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive.");
+        }
+        String path;
+        try {
+            path = directory.getCanonicalPath();
+        } catch (IOException e) {
+            path = directory.getAbsolutePath();
+        }
+        synchronized (instances) {
+            DrawerDiskCache cache = instances.get(path);
+            if (cache == null) {
+                cache = new DrawerDiskCache(new File(path), maxSize);
+                instances.put(path, cache);
+            } else if (cache.maxSize != maxSize) {
+                throw new IllegalArgumentException("The disk cache in " + path + " already has a max size of " + cache.maxSize + " bytes.");
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Gets the disk cache in the cache directory of the app, creating it on the first call
+     *
+     * @param context Context of the app
+     * @param maxSize Maximum size in bytes
+     * @return The disk cache
+     * @throws IllegalArgumentException if the cache was created with a different maximum size
+     */
+    public static DrawerDiskCache create(Context context, long maxSize) {
+        return create(new File(context.getCacheDir(), DIRECTORY_NAME), maxSize);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the number of bytes the cached images take up
+     *
+     * @return Size in bytes
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Gets a cached image. Must not be called from the main thread.
+     *
+     * @param key Cache key, see {@link DrawerBitmapCache#getKey(String, int, int)}
+     * @return The decoded image or {@code null} if it isn't cached.
+     */
+    public Bitmap get(String key) {
+        String name = getFileName(key);
+        synchronized (this) {
+            try {
+                open();
+                if (entries.get(name) == null) {
+                    return null;
+                }
+                redundantOpCount++;
+                writeJournal(READ, name);
+                compactIfNeeded();
+            } catch (IOException e) {
+                Log.w(TAG, "Could not read journal.", e);
+                return null;
+            }
+        }
+
+        Bitmap bitmap = decode(new File(directory, name));
+        if (bitmap == null) {
+            synchronized (this) {
+                try {
+                    removeEntry(name);
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not remove " + name + ".", e);
+                }
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Caches an image, replacing the image cached with the same key. Must not be called from the main thread.
+     *
+     * @param key    Cache key, see {@link DrawerBitmapCache#getKey(String, int, int)}
+     * @param bitmap The image
+     */
+    public void put(String key, Bitmap bitmap) {
+        String name = getFileName(key);
+        synchronized (this) {
+            try {
+                open();
+                writeJournal(DIRTY, name);
+            } catch (IOException e) {
+                Log.w(TAG, "Could not write journal.", e);
+                return;
+            }
+        }
+
+        File file = new File(directory, name);
+        File temp = new File(directory, name + '.' + Thread.currentThread().getId() + ".tmp");
+        boolean written = write(bitmap, temp);
+
+        synchronized (this) {
+            try {
+                if (written && temp.renameTo(file)) {
+                    long length = file.length();
+                    Long oldLength = entries.put(name, length);
+                    if (oldLength != null) {
+                        size -= oldLength;
+                        redundantOpCount++;
+                    }
+                    size += length;
+                    writeJournal(CLEAN, name + ' ' + length);
+                    trimToSize();
+                } else {
+                    deleteFile(temp);
+                    removeEntry(name);
+                }
+                compactIfNeeded();
+            } catch (IOException e) {
+                Log.w(TAG, "Could not write journal.", e);
+            }
+        }
+    }
+
+    /**
+     * Deletes all cached images
+     */
+    public synchronized void evictAll() {
+        try {
+            open();
+            for (String name : entries.keySet()) {
+                deleteFile(new File(directory, name));
+            }
+            entries.clear();
+            size = 0;
+            rebuildJournal();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not clear cache.", e);
+        }
+    }
+
+    /**
+     * Decodes a cached image, reusing the memory of a bitmap from the {@link DrawerBitmapPool} if one fits
+     */
+    private static Bitmap decode(File file) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        options.inJustDecodeBounds = false;
+        DrawerBitmapPool pool = DrawerBitmapPool.getInstance();
+        pool.setInBitmap(options);
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+        } catch (IllegalArgumentException e) {
+            pool.put(options.inBitmap);
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+        }
+        if (bitmap == null) {
+            pool.put(options.inBitmap);
+        }
+        return bitmap;
+    }
+
+    private static boolean write(Bitmap bitmap, File file) {
+        OutputStream stream = null;
+        try {
+            stream = new FileOutputStream(file);
+            boolean compressed = bitmap.hasAlpha()
+                    ? bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream)
+                    : bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, stream);
+            stream.close();
+            stream = null;
+            return compressed;
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write " + file + ".", e);
+            return false;
+        } finally {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the journal and deletes files that are not clean entries, like images whose write was interrupted
+     */
+    private void open() throws IOException {
+        if (journalWriter != null) {
+            return;
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory + ".");
+        }
+        File journal = new File(directory, JOURNAL_FILE);
+        if (journal.exists()) {
+            try {
+                readJournal(journal);
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Discarding corrupt journal.", e);
+                entries.clear();
+            }
+        }
+        size = 0;
+        for (Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, Long> entry = iterator.next();
+            File file = new File(directory, entry.getKey());
+            if (file.length() != entry.getValue()) {
+                iterator.remove();
+            } else {
+                size += entry.getValue();
+            }
+        }
+        rebuildJournal();
+
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (!name.equals(JOURNAL_FILE) && !entries.containsKey(name)) {
+                    deleteFile(file);
+                }
+            }
+        }
+        trimToSize();
+    }
+
+    private void readJournal(File journal) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journal), "US-ASCII"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                if (parts.length < 2) {
+                    throw new IOException("Unexpected journal line: " + line);
+                }
+                String name = parts[1];
+                switch (parts[0]) {
+                    case CLEAN:
+                        entries.put(name, Long.parseLong(parts[2]));
+                        break;
+                    case DIRTY:
+                    case REMOVE:
+                        entries.remove(name);
+                        break;
+                    case READ:
+                        entries.get(name);
+                        break;
+                    default:
+                        throw new IOException("Unexpected journal line: " + line);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Writes a journal only containing the clean entries
+     */
+    private void rebuildJournal() throws IOException {
+        if (journalWriter != null) {
+            journalWriter.close();
+            journalWriter = null;
+        }
+
+        File journalTemp = new File(directory, JOURNAL_FILE_TEMP);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalTemp), "US-ASCII"));
+        try {
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                writer.write(CLEAN + ' ' + entry.getKey() + ' ' + entry.getValue() + '\n');
+            }
+        } finally {
+            writer.close();
+        }
+        File journal = new File(directory, JOURNAL_FILE);
+        if (!journalTemp.renameTo(journal)) {
+            throw new IOException("Could not replace " + journal + ".");
+        }
+
+        journalWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journal, true), "US-ASCII"));
+        redundantOpCount = 0;
+    }
+
+    private void compactIfNeeded() throws IOException {
+        if (redundantOpCount >= REDUNDANT_OP_COMPACT_THRESHOLD && redundantOpCount >= entries.size()) {
+            rebuildJournal();
+        }
+    }
+
+    private void writeJournal(String operation, String arguments) throws IOException {
+        journalWriter.write(operation + ' ' + arguments + '\n');
+        journalWriter.flush();
+    }
+
+    private void removeEntry(String name) throws IOException {
+        Long length = entries.remove(name);
+        if (length != null) {
+            size -= length;
+        }
+        deleteFile(new File(directory, name));
+        redundantOpCount++;
+        writeJournal(REMOVE, name);
+    }
+
+    private void trimToSize() throws IOException {
+        while (size > maxSize && !entries.isEmpty()) {
+            removeEntry(entries.keySet().iterator().next());
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "Could not delete " + file + ".");
+        }
+    }
+
+    private static String getFileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes("UTF-8"));
+            StringBuilder name = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16));
+                name.append(Character.forDigit(b & 0xf, 16));
+            }
+            return name.toString();
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.image;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.support.annotation.DrawableRes;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Decodes drawer images on a background thread, downsampled to the size they are shown at.
+ * Decoded images are kept in the {@link DrawerBitmapCache}, so loading the same image at the same size again
+ * completes immediately.
+ */
+public class DrawerImageLoader {
+
+    private static final String TAG = "DrawerImageLoader";
+
+    private static volatile DrawerDiskCache diskCache;
+
+    /**
+     * Number of requests each delivered image is delivered to and not released from, only accessed from the main thread
+     */
+    private static final Map<Bitmap, Integer> bitmapUsers = new WeakHashMap<>();
+
+    private DrawerImageLoader() {
+    }
+
+    /**
+     * Sets a disk cache that keeps the downsampled images, so they don't need to be decoded from their source again on the next launch
+     *
+     * @param cache Disk cache to use or {@code null} to not cache images on disk
+     */
+    public static void setDiskCache(DrawerDiskCache cache) {
+        diskCache = cache;
+    }
+
+    /**
+     * Gets the disk cache that keeps the downsampled images
+     *
+     * @return Disk cache or {@code null} if images are not cached on disk
+     */
+    public static DrawerDiskCache getDiskCache() {
+        return diskCache;
+    }
+
+    /**
+     * Loads an image downsampled to cover the target size.
+     * The callback is called on the main thread, immediately if the image is cached already.
+     * If the image can't be decoded the callback is not called.
+     *
+     * @param context  Context used to open the image
+     * @param uri      URI of the image, either a {@code content://}, {@code file://} or {@code android.resource://} URI
+     * @param width    Target width
+     * @param height   Target height
+     * @param callback Callback receiving the decoded image
+     * @return The request, which can be used to cancel loading
+     */
+    public static Request load(Context context, Uri uri, int width, int height, Callback callback) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Target size must be positive.");
+        }
+        Request request = new Request(uri.toString(), width, height, callback);
+        Bitmap bitmap = DrawerBitmapCache.getInstance().get(request.source, width, height);
+        if (bitmap != null) {
+            request.deliver(bitmap);
+        } else {
+            request.task = new LoadTask(context.getApplicationContext(), uri, width, height, request);
+            request.task.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        }
+        return request;
+    }
+
+    /**
+     * Gets the URI of a bitmap resource, to load it with {@link #load(Context, Uri, int, int, Callback)}
+     *
+     * @param context    Context the resource belongs to
+     * @param resourceId ID of the resource
+     * @return {@code android.resource://} URI of the resource
+     */
+    public static Uri getResourceUri(Context context, @DrawableRes int resourceId) {
+        Resources resources = context.getResources();
+        return new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_ANDROID_RESOURCE)
+                .authority(resources.getResourcePackageName(resourceId))
+                .appendPath(resources.getResourceTypeName(resourceId))
+                .appendPath(resources.getResourceEntryName(resourceId))
+                .build();
+    }
+
+    /**
+     * Decodes an image with the largest sample size that still covers the target size and scales it down to the target size.
+     * Memory of bitmaps from the {@link DrawerBitmapPool} is reused where possible and the intermediate sampled bitmap is
+     * returned to the pool.
+     */
+    static Bitmap decode(Context context, Uri uri, int width, int height) throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        decodeStream(resolver, uri, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Could not decode bounds of " + uri + ".");
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, width, height);
+        DrawerBitmapPool pool = DrawerBitmapPool.getInstance();
+        pool.setInBitmap(options);
+        Bitmap bitmap;
+        try {
+            bitmap = decodeStream(resolver, uri, options);
+        } catch (IllegalArgumentException e) {
+            if (options.inBitmap == null) {
+                throw e;
+            }
+            // The pooled bitmap didn't fit the decoded image
+            pool.put(options.inBitmap);
+            options.inBitmap = null;
+            bitmap = decodeStream(resolver, uri, options);
+        }
+        if (bitmap == null) {
+            pool.put(options.inBitmap);
+            throw new IOException("Could not decode " + uri + ".");
+        }
+
+        Bitmap scaled = DrawerBitmapCache.scale(bitmap, width, height);
+        if (scaled != bitmap) {
+            pool.put(bitmap);
+        }
+        return scaled;
+    }
+
+    private static void acquire(Bitmap bitmap) {
+        Integer users = bitmapUsers.get(bitmap);
+        bitmapUsers.put(bitmap, users == null ? 1 : users + 1);
+    }
+
+    private static void release(String source, int width, int height, Bitmap bitmap) {
+        Integer users = bitmapUsers.get(bitmap);
+        if (users == null) {
+            return;
+        }
+        if (users > 1) {
+            bitmapUsers.put(bitmap, users - 1);
+            return;
+        }
+        bitmapUsers.remove(bitmap);
+        DrawerBitmapCache.getInstance().remove(source, width, height, bitmap);
+        DrawerBitmapPool.getInstance().put(bitmap);
+    }
+
+    /**
+     * Calculates the largest power of two sample size that keeps the decoded image at least as large as the target size
+     */
+    static int calculateInSampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private static Bitmap decodeStream(ContentResolver resolver, Uri uri, BitmapFactory.Options options) throws IOException {
+        InputStream stream = resolver.openInputStream(uri);
+        if (stream == null) {
+            throw new IOException("Could not open " + uri + ".");
+        }
+        try {
+            return BitmapFactory.decodeStream(stream, null, options);
+        } finally {
+            stream.close();
+        }
+    }
+
+
+    /**
+     * Callback receiving a loaded image
+     */
+    public interface Callback {
+        /**
+         * Called on the main thread when the image was loaded
+         *
+         * @param bitmap The image, downsampled to cover the target size
+         */
+        void onImageLoaded(Bitmap bitmap);
+    }
+
+    /**
+     * A pending or completed image request
+     */
+    public static class Request {
+        private final String source;
+        private final int width;
+        private final int height;
+        private final Callback callback;
+        private LoadTask task;
+        private boolean cancelled = false;
+        private boolean done = false;
+        private Bitmap bitmap;
+
+        private Request(String source, int width, int height, Callback callback) {
+            this.source = source;
+            this.width = width;
+            this.height = height;
+            this.callback = callback;
+        }
+
+        /**
+         * Cancels the request, so the callback won't be called anymore
+         */
+        public void cancel() {
+            cancelled = true;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+
+        /**
+         * Gets whether the image was delivered to the callback already
+         *
+         * @return True if the image was delivered, false otherwise.
+         */
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Cancels the request and releases the delivered image, so its memory can be reused for decoding other images.
+         * The image must not be drawn anymore, unless another request delivered it too.
+         * It is removed from the {@link DrawerBitmapCache} and added to the {@link DrawerBitmapPool} once no request holds it.
+         */
+        public void release() {
+            cancel();
+            if (bitmap != null) {
+                DrawerImageLoader.release(source, width, height, bitmap);
+                bitmap = null;
+            }
+        }
+
+        private void deliver(Bitmap bitmap) {
+            if (cancelled) {
+                return;
+            }
+            done = true;
+            this.bitmap = bitmap;
+            acquire(bitmap);
+            callback.onImageLoaded(bitmap);
+        }
+    }
+
+    private static class LoadTask extends AsyncTask<Void, Void, Bitmap> {
+        private final Context context;
+        private final Uri uri;
+        private final int width;
+        private final int height;
+        private final Request request;
+
+        private LoadTask(Context context, Uri uri, int width, int height, Request request) {
+            this.context = context;
+            this.uri = uri;
+            this.width = width;
+            this.height = height;
+            this.request = request;
+        }
+
+        @Override
+        protected Bitmap doInBackground(Void... params) {
+            try {
+                String source = request.source;
+                DrawerDiskCache diskCache = DrawerImageLoader.diskCache;
+                Bitmap bitmap = diskCache != null ? diskCache.get(DrawerBitmapCache.getKey(source, width, height)) : null;
+                if (bitmap == null) {
+                    bitmap = decode(context, uri, width, height);
+                    if (diskCache != null && !isCancelled()) {
+                        diskCache.put(DrawerBitmapCache.getKey(source, width, height), bitmap);
+                    }
+                }
+                DrawerBitmapCache.getInstance().put(source, width, height, bitmap);
+                return bitmap;
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Could not load " + uri + ".", e);
+                return null;
+            }
+        }
+
+        @Override
+        protected void onPostExecute(Bitmap bitmap) {
+            if (bitmap != null) {
+                request.deliver(bitmap);
+            }
+        }
+    }
+}
@@ -37,7 +37,6 @@ public class DrawerFragmentItem extends DrawerItem {
      */
     public DrawerFragmentItem setFragment(Fragment fragment) {
         mFragment = fragment;
-        notifyDataChanged();
         return this;
     }
 
@@ -65,7 +64,6 @@ public class DrawerFragmentItem extends DrawerItem {
      */
     public DrawerFragmentItem removeFragment() {
         mFragment = null;
-        notifyDataChanged();
         return this;
     }
 }
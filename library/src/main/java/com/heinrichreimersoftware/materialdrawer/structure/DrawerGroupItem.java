@@ -0,0 +1,235 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.structure;
+
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link DrawerItem} which shows its child items below it while it is expanded.
+ * The rows of the children are only created and bound while the group is expanded.
+ */
+public class DrawerGroupItem extends DrawerItem {
+
+    private final List<DrawerItem> mChildren = new ArrayList<>();
+
+    private ChildrenProvider mChildrenProvider;
+
+    private boolean mExpanded = false;
+
+
+    /**
+     * Adds a child to the group
+     *
+     * @param child Child to add
+     */
+    public DrawerGroupItem addChild(DrawerItem child) {
+        if (child instanceof DrawerGroupItem) {
+            throw new IllegalArgumentException("Groups can't be nested.");
+        }
+        loadChildren();
+        DrawerAdapter adapter = beginChildrenChange();
+        child.setGroup(this);
+        mChildren.add(child);
+        endChildrenChange(adapter);
+        return this;
+    }
+
+    /**
+     * Adds children to the group
+     *
+     * @param children Children to add
+     */
+    public DrawerGroupItem addChildren(List<DrawerItem> children) {
+        for (DrawerItem child : children) {
+            if (child instanceof DrawerGroupItem) {
+                throw new IllegalArgumentException("Groups can't be nested.");
+            }
+        }
+        loadChildren();
+        DrawerAdapter adapter = beginChildrenChange();
+        for (DrawerItem child : children) {
+            child.setGroup(this);
+            mChildren.add(child);
+        }
+        endChildrenChange(adapter);
+        return this;
+    }
+
+    /**
+     * Gets the children of the group. If a children provider is set, the children are created when they are first needed.
+     *
+     * @return Unmodifiable list of the children of the group
+     */
+    public List<DrawerItem> getChildren() {
+        loadChildren();
+        return Collections.unmodifiableList(mChildren);
+    }
+
+    /**
+     * Gets the number of children of the group
+     *
+     * @return Number of children of the group
+     */
+    public int getChildCount() {
+        loadChildren();
+        return mChildren.size();
+    }
+
+    /**
+     * Removes a child from the group
+     *
+     * @param child Child to remove
+     */
+    public DrawerGroupItem removeChild(DrawerItem child) {
+        loadChildren();
+        if (child.getGroup() != this) {
+            return this;
+        }
+        DrawerAdapter adapter = beginChildrenChange();
+        mChildren.remove(child);
+        child.setGroup(null);
+        endChildrenChange(adapter);
+        return this;
+    }
+
+    /**
+     * Removes all children from the group
+     */
+    public DrawerGroupItem clearChildren() {
+        DrawerAdapter adapter = beginChildrenChange();
+        for (DrawerItem child : mChildren) {
+            child.setGroup(null);
+        }
+        mChildren.clear();
+        mChildrenProvider = null;
+        endChildrenChange(adapter);
+        return this;
+    }
+
+
+    /**
+     * Sets a provider that creates the children of the group when they are first needed, usually when the group is first expanded
+     *
+     * @param childrenProvider Provider to set
+     */
+    public DrawerGroupItem setChildrenProvider(ChildrenProvider childrenProvider) {
+        mChildrenProvider = childrenProvider;
+        return this;
+    }
+
+    /**
+     * Gets the provider that creates the children of the group
+     *
+     * @return Provider of the group or {@code null} if the children were already created
+     */
+    public ChildrenProvider getChildrenProvider() {
+        return mChildrenProvider;
+    }
+
+
+    /**
+     * Sets whether the group is expanded
+     *
+     * @param expanded True to show the children below the group, false to hide them.
+     */
+    public DrawerGroupItem setExpanded(boolean expanded) {
+        if (mExpanded == expanded) {
+            return this;
+        }
+        mExpanded = expanded;
+        if (getAdapter() instanceof DrawerAdapter) {
+            DrawerAdapter adapter = (DrawerAdapter) getAdapter();
+            if (expanded) {
+                adapter.showGroupChildren(this);
+            } else {
+                adapter.hideGroupChildren(this);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Gets whether the group is expanded
+     *
+     * @return True if the children are shown below the group, false otherwise.
+     */
+    public boolean isExpanded() {
+        return mExpanded;
+    }
+
+    /**
+     * Expands the group if it is collapsed and collapses it otherwise
+     */
+    public DrawerGroupItem toggleExpanded() {
+        return setExpanded(!mExpanded);
+    }
+
+
+    private void loadChildren() {
+        if (mChildrenProvider != null) {
+            ChildrenProvider provider = mChildrenProvider;
+            mChildrenProvider = null;
+            List<DrawerItem> children = provider.onCreateChildren(this);
+            if (children != null) {
+                for (DrawerItem child : children) {
+                    if (child instanceof DrawerGroupItem) {
+                        throw new IllegalArgumentException("Groups can't be nested.");
+                    }
+                    child.setGroup(this);
+                    mChildren.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hides the rows of the children while they change, so the adapter can show the changed children afterwards
+     */
+    private DrawerAdapter beginChildrenChange() {
+        if (mExpanded && getAdapter() instanceof DrawerAdapter) {
+            DrawerAdapter adapter = (DrawerAdapter) getAdapter();
+            adapter.beginBatch();
+            adapter.hideGroupChildren(this);
+            return adapter;
+        }
+        return null;
+    }
+
+    private void endChildrenChange(DrawerAdapter adapter) {
+        if (adapter != null) {
+            adapter.showGroupChildren(this);
+            adapter.endBatch();
+        }
+    }
+
+
+    public interface ChildrenProvider {
+        List<DrawerItem> onCreateChildren(DrawerGroupItem group);
+    }
+}
@@ -25,12 +25,18 @@
 package com.heinrichreimersoftware.materialdrawer.structure;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
+import android.net.Uri;
 import android.widget.ArrayAdapter;
 
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerAdapter;
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerMetrics;
 import com.heinrichreimersoftware.materialdrawer.drawable.RoundedAvatarDrawable;
+import com.heinrichreimersoftware.materialdrawer.image.DrawerBitmapCache;
+import com.heinrichreimersoftware.materialdrawer.image.DrawerImageLoader;
 import com.heinrichreimersoftware.materialdrawer.theme.DrawerTheme;
 
 /**
@@ -54,6 +60,7 @@ public class DrawerItem {
 
     private Drawable mImage = null;
     private int mImageMode = -1;
+    private DrawerImageLoader.Request mImageRequest;
 
     private String mTextPrimary;
     private String mTextSecondary;
@@ -63,6 +70,8 @@ public class DrawerItem {
 
     private ArrayAdapter<DrawerItem> mAdapter;
 
+    private DrawerGroupItem mGroup;
+
 
     /**
      * Sets the drawer item theme
@@ -71,7 +80,7 @@ public class DrawerItem {
      */
     public DrawerItem setDrawerTheme(DrawerTheme theme) {
         mDrawerTheme = theme;
-        notifyDataChanged();
+        notifyDataChanged(DrawerAdapter.PAYLOAD_THEME);
         return this;
     }
 
@@ -80,7 +89,7 @@ public class DrawerItem {
      */
     public DrawerItem resetDrawerTheme(Context context) {
         mDrawerTheme = new DrawerTheme(context);
-        notifyDataChanged();
+        notifyDataChanged(DrawerAdapter.PAYLOAD_THEME);
         return this;
     }
 
@@ -147,7 +156,11 @@ public class DrawerItem {
      * @param id ID to set
      */
     public DrawerItem setId(long id) {
+        long oldId = mId;
         mId = id;
+        if (mAdapter instanceof DrawerAdapter && oldId != id) {
+            ((DrawerAdapter) mAdapter).onIdChanged(this, oldId);
+        }
         return this;
     }
 
@@ -168,9 +181,11 @@ public class DrawerItem {
      * @param imageMode Image mode to set
      */
     public DrawerItem setImage(Drawable image, int imageMode) {
+        checkImageMode(imageMode);
+        cancelImageRequest();
         mImage = image;
-        setImageMode(imageMode);
-        notifyDataChanged();
+        mImageMode = imageMode;
+        notifyDataChanged(DrawerAdapter.PAYLOAD_IMAGE);
         return this;
     }
 
@@ -181,7 +196,6 @@ public class DrawerItem {
      */
     public DrawerItem setImage(Drawable image) {
         setImage(image, ICON);
-        notifyDataChanged();
         return this;
     }
 
@@ -192,7 +206,7 @@ public class DrawerItem {
      * @param imageMode Image mode to set
      */
     public DrawerItem setImage(Context context, Bitmap image, int imageMode) {
-        return setImage(new BitmapDrawable(context.getResources(), image), imageMode);
+        return setImage(new BitmapDrawable(context.getResources(), getScaledImage(context, image)), imageMode);
     }
 
     /**
@@ -201,7 +215,7 @@ public class DrawerItem {
      * @param image Image to set
      */
     public DrawerItem setImage(Context context, Bitmap image) {
-        return setImage(new BitmapDrawable(context.getResources(), image));
+        return setImage(new BitmapDrawable(context.getResources(), getScaledImage(context, image)));
     }
 
     /**
@@ -230,7 +244,7 @@ public class DrawerItem {
      * @param imageMode Image mode to set
      */
     public DrawerItem setRoundedImage(Context context, Bitmap image, int imageMode) {
-        return setImage(new RoundedAvatarDrawable(new BitmapDrawable(context.getResources(), image).getBitmap()), imageMode);
+        return setImage(new RoundedAvatarDrawable(image, DrawerMetrics.get(context).getAvatarSize()), imageMode);
     }
 
     /**
@@ -239,7 +253,91 @@ public class DrawerItem {
      * @param image Image to set
      */
     public DrawerItem setRoundedImage(Context context, Bitmap image) {
-        return setImage(new RoundedAvatarDrawable(new BitmapDrawable(context.getResources(), image).getBitmap()), AVATAR);
+        return setImage(new RoundedAvatarDrawable(image, DrawerMetrics.get(context).getAvatarSize()), AVATAR);
+    }
+
+    /**
+     * Loads an image on a background thread and sets it with a given image mode to the drawer item once it is loaded.
+     * The image is downsampled to the size it is shown at. Files can be loaded with {@link Uri#fromFile(java.io.File)},
+     * resources with {@link DrawerImageLoader#getResourceUri(Context, int)}.
+     *
+     * @param context     Context used to load the image
+     * @param uri         URI of the image to set
+     * @param imageMode   Image mode to set
+     * @param placeholder Image to show while loading
+     */
+    public DrawerItem setImage(Context context, Uri uri, int imageMode, Drawable placeholder) {
+        return loadImage(context, uri, imageMode, placeholder, false);
+    }
+
+    /**
+     * Loads an image on a background thread and sets it with a given image mode to the drawer item once it is loaded
+     *
+     * @param context   Context used to load the image
+     * @param uri       URI of the image to set
+     * @param imageMode Image mode to set
+     */
+    public DrawerItem setImage(Context context, Uri uri, int imageMode) {
+        return loadImage(context, uri, imageMode, null, false);
+    }
+
+    /**
+     * Loads an image on a background thread and sets it to the drawer item once it is loaded
+     *
+     * @param context Context used to load the image
+     * @param uri     URI of the image to set
+     */
+    public DrawerItem setImage(Context context, Uri uri) {
+        return loadImage(context, uri, ICON, null, false);
+    }
+
+    /**
+     * Loads an image on a background thread and sets it rounded with a given image mode to the drawer item once it is loaded
+     *
+     * @param context   Context used to load the image
+     * @param uri       URI of the image to set
+     * @param imageMode Image mode to set
+     */
+    public DrawerItem setRoundedImage(Context context, Uri uri, int imageMode) {
+        return loadImage(context, uri, imageMode, null, true);
+    }
+
+    /**
+     * Loads an image on a background thread and sets it rounded to the drawer item once it is loaded
+     *
+     * @param context Context used to load the image
+     * @param uri     URI of the image to set
+     */
+    public DrawerItem setRoundedImage(Context context, Uri uri) {
+        return loadImage(context, uri, AVATAR, null, true);
+    }
+
+    private DrawerItem loadImage(Context context, Uri uri, int imageMode, Drawable placeholder, final boolean rounded) {
+        checkImageMode(imageMode);
+        cancelImageRequest();
+        mImage = placeholder;
+        mImageMode = imageMode;
+
+        final Resources resources = context.getResources();
+        int size = DrawerMetrics.get(context).getAvatarSize();
+        mImageRequest = DrawerImageLoader.load(context, uri, size, size, new DrawerImageLoader.Callback() {
+            @Override
+            public void onImageLoaded(Bitmap bitmap) {
+                mImage = rounded ? new RoundedAvatarDrawable(bitmap) : new BitmapDrawable(resources, bitmap);
+                notifyDataChanged(DrawerAdapter.PAYLOAD_IMAGE);
+            }
+        });
+        if (!mImageRequest.isDone()) {
+            notifyDataChanged(DrawerAdapter.PAYLOAD_IMAGE);
+        }
+        return this;
+    }
+
+    private void cancelImageRequest() {
+        if (mImageRequest != null) {
+            mImageRequest.cancel();
+            mImageRequest = null;
+        }
     }
 
     /**
@@ -265,8 +363,9 @@ public class DrawerItem {
      * Removes the image from the drawer item
      */
     public DrawerItem removeImage() {
+        cancelImageRequest();
         mImage = null;
-        notifyDataChanged();
+        notifyDataChanged(DrawerAdapter.PAYLOAD_IMAGE);
         return this;
     }
 
@@ -277,12 +376,24 @@ public class DrawerItem {
      * @param imageMode Image mode to set
      */
     public DrawerItem setImageMode(int imageMode) {
+        checkImageMode(imageMode);
+        mImageMode = imageMode;
+        notifyDataChanged(DrawerAdapter.PAYLOAD_IMAGE);
+        return this;
+    }
+
+    /**
+     * Scales an image down to the avatar size, the largest size an item image is shown at, so it can be switched between image modes
+     */
+    private static Bitmap getScaledImage(Context context, Bitmap image) {
+        int size = DrawerMetrics.get(context).getAvatarSize();
+        return DrawerBitmapCache.getInstance().getScaled(image, size, size);
+    }
+
+    private static void checkImageMode(int imageMode) {
         if (imageMode != ICON && imageMode != AVATAR && imageMode != SMALL_AVATAR) {
             throw new IllegalArgumentException("Image mode must be either ICON or AVATAR.");
         }
-        mImageMode = imageMode;
-        notifyDataChanged();
-        return this;
     }
 
     /**
@@ -309,7 +420,7 @@ public class DrawerItem {
      */
     public DrawerItem resetImageMode() {
         mImageMode = ICON;
-        notifyDataChanged();
+        notifyDataChanged(DrawerAdapter.PAYLOAD_IMAGE);
         return this;
     }
 
@@ -321,7 +432,7 @@ public class DrawerItem {
      */
     public DrawerItem setTextPrimary(String textPrimary) {
         mTextPrimary = textPrimary;
-        notifyDataChanged();
+        notifyDataChanged(DrawerAdapter.PAYLOAD_TEXT);
         return this;
     }
 
@@ -349,7 +460,7 @@ public class DrawerItem {
      */
     public DrawerItem removeTextPrimary() {
         mTextPrimary = null;
-        notifyDataChanged();
+        notifyDataChanged(DrawerAdapter.PAYLOAD_TEXT);
         return this;
     }
 
@@ -361,9 +472,10 @@ public class DrawerItem {
      * @param textMode      Text mode to set
      */
     public DrawerItem setTextSecondary(String textSecondary, int textMode) {
+        checkTextMode(textMode);
         mTextSecondary = textSecondary;
-        setTextMode(textMode);
-        notifyDataChanged();
+        mTextMode = textMode;
+        notifyDataChanged(DrawerAdapter.PAYLOAD_TEXT);
         return this;
     }
 
@@ -401,7 +513,7 @@ public class DrawerItem {
      */
     public DrawerItem removeTextSecondary() {
         mTextSecondary = null;
-        notifyDataChanged();
+        notifyDataChanged(DrawerAdapter.PAYLOAD_TEXT);
         return this;
     }
 
@@ -412,12 +524,16 @@ public class DrawerItem {
      * @param textMode Text mode to set
      */
     public DrawerItem setTextMode(int textMode) {
+        checkTextMode(textMode);
+        mTextMode = textMode;
+        notifyDataChanged(DrawerAdapter.PAYLOAD_TEXT);
+        return this;
+    }
+
+    private static void checkTextMode(int textMode) {
         if (textMode != SINGLE_LINE && textMode != TWO_LINE && textMode != THREE_LINE) {
             throw new IllegalArgumentException("Image mode must be either SINGLE_LINE, TWO_LINE or THREE_LINE.");
         }
-        mTextMode = textMode;
-        notifyDataChanged();
-        return this;
     }
 
     /**
@@ -444,7 +560,7 @@ public class DrawerItem {
      */
     public DrawerItem resetTextMode() {
         mTextMode = SINGLE_LINE;
-        notifyDataChanged();
+        notifyDataChanged(DrawerAdapter.PAYLOAD_TEXT);
         return this;
     }
 
@@ -456,7 +572,6 @@ public class DrawerItem {
      */
     public DrawerItem setOnItemClickListener(OnItemClickListener listener) {
         mOnClickListener = listener;
-        notifyDataChanged();
         return this;
     }
 
@@ -483,7 +598,6 @@ public class DrawerItem {
      */
     public DrawerItem removeOnItemClickListener() {
         mOnClickListener = null;
-        notifyDataChanged();
         return this;
     }
 
@@ -506,12 +620,47 @@ public class DrawerItem {
         return this;
     }
 
+    /**
+     * Gets the adapter the drawer item is attached to
+     *
+     * @return The adapter or {@code null} if the drawer item is not attached
+     */
+    protected ArrayAdapter<DrawerItem> getAdapter() {
+        return mAdapter;
+    }
+
+    /**
+     * Gets the group the drawer item is a child of
+     *
+     * @return The group or {@code null} if the drawer item is not a child of a group
+     */
+    public DrawerGroupItem getGroup() {
+        return mGroup;
+    }
+
+    void setGroup(DrawerGroupItem group) {
+        mGroup = group;
+    }
+
     protected void notifyDataChanged() {
         if (mAdapter != null) {
             mAdapter.notifyDataSetChanged();
         }
     }
 
+    /**
+     * Notifies the adapter that only parts of the drawer item changed, so only those parts of its row get rebound
+     *
+     * @param payload The changed parts, a combination of the {@link DrawerAdapter} payload flags
+     */
+    protected void notifyDataChanged(int payload) {
+        if (mAdapter instanceof DrawerAdapter) {
+            ((DrawerAdapter) mAdapter).notifyItemChanged(this, payload);
+        } else {
+            notifyDataChanged();
+        }
+    }
+
 
     public interface OnItemClickListener {
         void onClick(DrawerItem item, long id, int position);
@@ -25,12 +25,17 @@
 package com.heinrichreimersoftware.materialdrawer.structure;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
+import android.net.Uri;
 
 import com.heinrichreimersoftware.materialdrawer.DrawerView;
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerMetrics;
 import com.heinrichreimersoftware.materialdrawer.drawable.RoundedAvatarDrawable;
+import com.heinrichreimersoftware.materialdrawer.image.DrawerBitmapCache;
+import com.heinrichreimersoftware.materialdrawer.image.DrawerImageLoader;
 import com.heinrichreimersoftware.materialdrawer.theme.DrawerTheme;
 
 /**
@@ -45,6 +50,12 @@ public class DrawerProfile {
 
     private Drawable mAvatar = null;
     private Drawable mBackground = null;
+    private DrawerImageLoader.Request mAvatarRequest;
+    private DrawerImageLoader.Request mBackgroundRequest;
+    private Context mBackgroundContext;
+    private Uri mBackgroundUri;
+    private Drawable mBackgroundPlaceholder;
+    private boolean mBackgroundTrimmed = false;
     private String mName;
     private String mDescription;
 
@@ -93,7 +104,10 @@ public class DrawerProfile {
      * @param id ID to set
      */
     public DrawerProfile setId(long id) {
-        mId = id;
+        if (mId != id) {
+            mId = id;
+            notifyDataChanged();
+        }
         return this;
     }
 
@@ -113,6 +127,7 @@ public class DrawerProfile {
      * @param avatar Avatar image to set
      */
     public DrawerProfile setAvatar(Drawable avatar) {
+        cancelAvatarRequest();
         mAvatar = avatar;
         notifyDataChanged();
         return this;
@@ -124,7 +139,9 @@ public class DrawerProfile {
      * @param avatar Avatar image to set
      */
     public DrawerProfile setAvatar(Context context, Bitmap avatar) {
-        mAvatar = new BitmapDrawable(context.getResources(), avatar);
+        cancelAvatarRequest();
+        int size = DrawerMetrics.get(context).getBigAvatarSize();
+        mAvatar = new BitmapDrawable(context.getResources(), DrawerBitmapCache.getInstance().getScaled(avatar, size, size));
         notifyDataChanged();
         return this;
     }
@@ -135,7 +152,7 @@ public class DrawerProfile {
      * @param image Avatar image to set
      */
     public DrawerProfile setRoundedAvatar(BitmapDrawable image) {
-        return setAvatar(new RoundedAvatarDrawable(image.getBitmap()));
+        return setAvatar(new RoundedAvatarDrawable(image.getBitmap()).setPreRasterized(true));
     }
 
     /**
@@ -144,7 +161,77 @@ public class DrawerProfile {
      * @param image Avatar image to set
      */
     public DrawerProfile setRoundedAvatar(Context context, Bitmap image) {
-        return setAvatar(new RoundedAvatarDrawable(new BitmapDrawable(context.getResources(), image).getBitmap()));
+        return setAvatar(new RoundedAvatarDrawable(image, DrawerMetrics.get(context).getBigAvatarSize()).setPreRasterized(true));
+    }
+
+    /**
+     * Loads an avatar image on a background thread and sets it to the drawer profile once it is loaded.
+     * The image is downsampled to the size it is shown at. Files can be loaded with {@link Uri#fromFile(java.io.File)},
+     * resources with {@link DrawerImageLoader#getResourceUri(Context, int)}.
+     *
+     * @param context     Context used to load the image
+     * @param uri         URI of the avatar image to set
+     * @param placeholder Avatar image to show while loading
+     */
+    public DrawerProfile setAvatar(Context context, Uri uri, Drawable placeholder) {
+        return loadAvatar(context, uri, placeholder, false);
+    }
+
+    /**
+     * Loads an avatar image on a background thread and sets it to the drawer profile once it is loaded
+     *
+     * @param context Context used to load the image
+     * @param uri     URI of the avatar image to set
+     */
+    public DrawerProfile setAvatar(Context context, Uri uri) {
+        return loadAvatar(context, uri, null, false);
+    }
+
+    /**
+     * Loads an avatar image on a background thread and sets it rounded to the drawer profile once it is loaded
+     *
+     * @param context     Context used to load the image
+     * @param uri         URI of the avatar image to set
+     * @param placeholder Avatar image to show while loading
+     */
+    public DrawerProfile setRoundedAvatar(Context context, Uri uri, Drawable placeholder) {
+        return loadAvatar(context, uri, placeholder, true);
+    }
+
+    /**
+     * Loads an avatar image on a background thread and sets it rounded to the drawer profile once it is loaded
+     *
+     * @param context Context used to load the image
+     * @param uri     URI of the avatar image to set
+     */
+    public DrawerProfile setRoundedAvatar(Context context, Uri uri) {
+        return loadAvatar(context, uri, null, true);
+    }
+
+    private DrawerProfile loadAvatar(Context context, Uri uri, Drawable placeholder, final boolean rounded) {
+        cancelAvatarRequest();
+        mAvatar = placeholder;
+
+        final Resources resources = context.getResources();
+        int size = DrawerMetrics.get(context).getBigAvatarSize();
+        mAvatarRequest = DrawerImageLoader.load(context, uri, size, size, new DrawerImageLoader.Callback() {
+            @Override
+            public void onImageLoaded(Bitmap bitmap) {
+                mAvatar = rounded ? new RoundedAvatarDrawable(bitmap).setPreRasterized(true) : new BitmapDrawable(resources, bitmap);
+                notifyDataChanged();
+            }
+        });
+        if (!mAvatarRequest.isDone()) {
+            notifyDataChanged();
+        }
+        return this;
+    }
+
+    private void cancelAvatarRequest() {
+        if (mAvatarRequest != null) {
+            mAvatarRequest.cancel();
+            mAvatarRequest = null;
+        }
     }
 
     /**
@@ -169,6 +256,7 @@ public class DrawerProfile {
      * Removes the avatar image from the drawer profile
      */
     public DrawerProfile removeAvatar() {
+        cancelAvatarRequest();
         mAvatar = null;
         notifyDataChanged();
         return this;
@@ -181,6 +269,7 @@ public class DrawerProfile {
      * @param background Background to set
      */
     public DrawerProfile setBackground(Drawable background) {
+        cancelBackgroundRequest();
         mBackground = background;
         notifyDataChanged();
         return this;
@@ -192,11 +281,103 @@ public class DrawerProfile {
      * @param background Background to set
      */
     public DrawerProfile setBackground(Context context, Bitmap background) {
-        mBackground = new BitmapDrawable(context.getResources(), background);
+        cancelBackgroundRequest();
+        DrawerMetrics metrics = DrawerMetrics.get(context);
+        mBackground = new BitmapDrawable(context.getResources(),
+                DrawerBitmapCache.getInstance().getScaled(background, metrics.getHeaderWidth(), metrics.getHeaderHeight()));
         notifyDataChanged();
         return this;
     }
 
+    /**
+     * Loads a background on a background thread and sets it to the drawer profile once it is loaded.
+     * The image is downsampled to the size of the profile header. Files can be loaded with {@link Uri#fromFile(java.io.File)},
+     * resources with {@link DrawerImageLoader#getResourceUri(Context, int)}.
+     *
+     * @param context     Context used to load the image
+     * @param uri         URI of the background to set
+     * @param placeholder Background to show while loading
+     */
+    public DrawerProfile setBackground(Context context, Uri uri, Drawable placeholder) {
+        cancelBackgroundRequest();
+        mBackground = placeholder;
+        mBackgroundContext = context.getApplicationContext();
+        mBackgroundUri = uri;
+        mBackgroundPlaceholder = placeholder;
+
+        final Resources resources = context.getResources();
+        DrawerMetrics metrics = DrawerMetrics.get(context);
+        mBackgroundRequest = DrawerImageLoader.load(context, uri, metrics.getHeaderWidth(), metrics.getHeaderHeight(), new DrawerImageLoader.Callback() {
+            @Override
+            public void onImageLoaded(Bitmap bitmap) {
+                mBackground = new BitmapDrawable(resources, bitmap);
+                notifyDataChanged();
+            }
+        });
+        if (!mBackgroundRequest.isDone()) {
+            notifyDataChanged();
+        }
+        return this;
+    }
+
+    /**
+     * Loads a background on a background thread and sets it to the drawer profile once it is loaded
+     *
+     * @param context Context used to load the image
+     * @param uri     URI of the background to set
+     */
+    public DrawerProfile setBackground(Context context, Uri uri) {
+        return setBackground(context, uri, null);
+    }
+
+    private void cancelBackgroundRequest() {
+        if (mBackgroundRequest != null) {
+            mBackgroundRequest.cancel();
+            mBackgroundRequest = null;
+        }
+        mBackgroundContext = null;
+        mBackgroundUri = null;
+        mBackgroundPlaceholder = null;
+        mBackgroundTrimmed = false;
+    }
+
+    /**
+     * Releases a background loaded with {@link #setBackground(Context, Uri, Drawable)}, so its memory can be reused for
+     * decoding other images, and shows the placeholder instead. Must only be called while the background isn't shown.
+     * The background is loaded again by {@link #restoreBackground()}.
+     */
+    public DrawerProfile trimBackground() {
+        if (mBackgroundUri == null || mBackgroundTrimmed) {
+            return this;
+        }
+        if (mBackgroundRequest != null) {
+            mBackgroundRequest.release();
+            mBackgroundRequest = null;
+        }
+        mBackground = mBackgroundPlaceholder;
+        mBackgroundTrimmed = true;
+        return this;
+    }
+
+    /**
+     * Loads a background released by {@link #trimBackground()} again
+     */
+    public DrawerProfile restoreBackground() {
+        if (mBackgroundTrimmed) {
+            setBackground(mBackgroundContext, mBackgroundUri, mBackgroundPlaceholder);
+        }
+        return this;
+    }
+
+    /**
+     * Gets whether the background was released by {@link #trimBackground()} and not loaded again yet
+     *
+     * @return True if the background was released, false otherwise.
+     */
+    public boolean isBackgroundTrimmed() {
+        return mBackgroundTrimmed;
+    }
+
     /**
      * Gets the background of the drawer profile
      *
@@ -219,6 +400,7 @@ public class DrawerProfile {
      * Removes the background from the drawer profile
      */
     public DrawerProfile removeBackground() {
+        cancelBackgroundRequest();
         mBackground = null;
         notifyDataChanged();
         return this;
@@ -362,7 +544,7 @@ public class DrawerProfile {
 
     protected void notifyDataChanged() {
         if (mDrawerView != null) {
-            mDrawerView.selectProfile(this);
+            mDrawerView.onProfileChanged(this);
         }
     }
 
@@ -0,0 +1,424 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.widget;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.PorterDuff;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.support.v4.view.ViewCompat;
+import android.text.Spanned;
+import android.text.StaticLayout;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerMetrics;
+
+/**
+ * A drawer item row that draws its image, primary and secondary text itself instead of using a view per element.
+ * Text layouts are taken from {@link DrawerTextLayouts}, so they can be built ahead of time on a background thread.
+ * The secondary text is limited to a single line.
+ */
+public class DrawerItemView extends View {
+
+    private DrawerMetrics mMetrics;
+
+    private Drawable mSelector;
+
+    private Drawable mImageSource;
+    private Drawable mImage;
+    private int mImageSize;
+    private boolean mImageTinted;
+    private int mImageTint;
+
+    private CharSequence mTextPrimary;
+    private CharSequence mTextSecondary;
+    private int mTextColorPrimary;
+    private int mTextColorSecondary;
+    private StaticLayout mLayoutPrimary;
+    private StaticLayout mLayoutSecondary;
+    private int mLayoutWidth = -1;
+
+    public DrawerItemView(Context context) {
+        super(context);
+        init(context);
+    }
+
+    public DrawerItemView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init(context);
+    }
+
+    public DrawerItemView(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        init(context);
+    }
+
+    private void init(Context context) {
+        mMetrics = DrawerMetrics.get(context);
+
+        int baseline = mMetrics.getBaseline();
+        int margin = mMetrics.getListItemMargin();
+        ViewCompat.setPaddingRelative(this, baseline, margin, baseline, margin);
+        setMinimumHeight(mMetrics.getListItemHeight());
+    }
+
+    /**
+     * Sets the drawable that is drawn above the row and reflects its pressed and selected state
+     *
+     * @param selector Selector to set
+     */
+    public void setSelector(Drawable selector) {
+        if (mSelector == selector) {
+            return;
+        }
+        if (mSelector != null) {
+            mSelector.setCallback(null);
+            unscheduleDrawable(mSelector);
+        }
+        mSelector = selector;
+        if (selector != null) {
+            selector.setCallback(this);
+            if (selector.isStateful()) {
+                selector.setState(getDrawableState());
+            }
+        }
+        invalidate();
+    }
+
+    /**
+     * Sets the image of the row
+     *
+     * @param image Image to set or {@code null} to show no image
+     * @param size  Size of the image in pixels
+     */
+    public void setImage(Drawable image, int size) {
+        if (mImageSource == image && mImageSize == size) {
+            return;
+        }
+        boolean layoutChanged = (mImageSource == null) != (image == null) || mImageSize != size;
+        mImageSource = image;
+        mImageSize = size;
+        updateImage();
+        if (layoutChanged) {
+            mLayoutWidth = -1;
+            requestLayout();
+        }
+        invalidate();
+    }
+
+    /**
+     * Tints the image of the row.
+     * The tint is applied to a copy of the image held by the row, the drawable passed to {@link #setImage(Drawable, int)} is left untouched
+     * unless it has no constant state to copy from.
+     *
+     * @param color Color to tint with
+     */
+    public void setImageColorFilter(int color) {
+        if (mImageTinted && mImageTint == color) {
+            return;
+        }
+        mImageTinted = true;
+        mImageTint = color;
+        if (mImage != null && mImage != mImageSource) {
+            mImage.setColorFilter(color, PorterDuff.Mode.SRC_IN);
+        } else {
+            updateImage();
+        }
+        invalidate();
+    }
+
+    /**
+     * Removes the tint of the image of the row
+     */
+    public void clearImageColorFilter() {
+        if (!mImageTinted) {
+            return;
+        }
+        mImageTinted = false;
+        if (mImage != null && mImage == mImageSource) {
+            mImage.clearColorFilter();
+        }
+        updateImage();
+        invalidate();
+    }
+
+    private void updateImage() {
+        Drawable image = mImageSource;
+        if (image != null && mImageTinted) {
+            Drawable.ConstantState state = image.getConstantState();
+            image = state != null ? state.newDrawable(getResources()).mutate() : image.mutate();
+            image.setColorFilter(mImageTint, PorterDuff.Mode.SRC_IN);
+        }
+        if (mImage == image) {
+            return;
+        }
+        if (mImage != null) {
+            mImage.setCallback(null);
+            unscheduleDrawable(mImage);
+        }
+        mImage = image;
+        if (image != null) {
+            image.setCallback(this);
+            if (image.isStateful()) {
+                image.setState(getDrawableState());
+            }
+            image.setVisible(getVisibility() == VISIBLE, false);
+        }
+    }
+
+    /**
+     * Sets the texts of the row
+     *
+     * @param textPrimary   Primary text to set
+     * @param textSecondary Secondary text to set or {@code null} to show no secondary text
+     */
+    public void setText(CharSequence textPrimary, CharSequence textSecondary) {
+        if (isSameText(mTextPrimary, textPrimary) && isSameText(mTextSecondary, textSecondary)) {
+            return;
+        }
+        boolean heightChanged = TextUtils.isEmpty(mTextSecondary) != TextUtils.isEmpty(textSecondary);
+        mTextPrimary = textPrimary;
+        mTextSecondary = textSecondary;
+        mLayoutWidth = -1;
+        if (heightChanged) {
+            requestLayout();
+        } else if (getWidth() > 0) {
+            buildLayouts(getWidth());
+        }
+        invalidate();
+    }
+
+    /**
+     * Styled texts are only the same if they are the same instance, as equal strings can carry different spans
+     */
+    private static boolean isSameText(CharSequence oldText, CharSequence newText) {
+        return oldText == newText || !(oldText instanceof Spanned) && !(newText instanceof Spanned) && TextUtils.equals(oldText, newText);
+    }
+
+    public void setTextColorPrimary(int color) {
+        if (mTextColorPrimary != color) {
+            mTextColorPrimary = color;
+            invalidate();
+        }
+    }
+
+    public void setTextColorSecondary(int color) {
+        if (mTextColorSecondary != color) {
+            mTextColorSecondary = color;
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        buildLayouts(width);
+
+        int contentHeight = getTextHeight();
+        if (mImage != null) {
+            contentHeight = Math.max(contentHeight, mImageSize);
+        }
+        int height = Math.max(getSuggestedMinimumHeight(), getPaddingTop() + contentHeight + getPaddingBottom());
+
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    private void buildLayouts(int width) {
+        if (width == mLayoutWidth) {
+            return;
+        }
+        mLayoutWidth = width;
+
+        int textWidth = getTextWidth(width, mImage != null, mMetrics);
+        mLayoutPrimary = DrawerTextLayouts.get(mMetrics, DrawerTextLayouts.STYLE_PRIMARY, mTextPrimary, textWidth, isRtl());
+        mLayoutSecondary = TextUtils.isEmpty(mTextSecondary) ? null :
+                DrawerTextLayouts.get(mMetrics, DrawerTextLayouts.STYLE_SECONDARY, mTextSecondary, textWidth, isRtl());
+    }
+
+    /**
+     * Gets the width available for the texts of a row
+     *
+     * @param width    Width of the row
+     * @param hasImage Whether the row shows an image
+     * @param metrics  Metrics of the row
+     * @return The width of the text layouts
+     */
+    public static int getTextWidth(int width, boolean hasImage, DrawerMetrics metrics) {
+        return Math.max(0, width - 2 * metrics.getBaseline() - (hasImage ? metrics.getImageWidth() : 0));
+    }
+
+    private int getImageWidth() {
+        return mImage != null ? mMetrics.getImageWidth() : 0;
+    }
+
+    private int getTextHeight() {
+        int height = mLayoutPrimary != null ? mLayoutPrimary.getHeight() : 0;
+        if (mLayoutSecondary != null) {
+            height += mLayoutSecondary.getHeight();
+        }
+        return height;
+    }
+
+    private boolean isRtl() {
+        return ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL;
+    }
+
+    @Override
+    public void onRtlPropertiesChanged(int layoutDirection) {
+        super.onRtlPropertiesChanged(layoutDirection);
+        mLayoutWidth = -1;
+        requestLayout();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        int width = getWidth();
+        int contentTop = getPaddingTop();
+        int contentHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+        boolean rtl = isRtl();
+
+        if (mImage != null) {
+            int left = rtl ? width - getPaddingRight() - mImageSize : getPaddingLeft();
+            int top = contentTop + (contentHeight - mImageSize) / 2;
+            drawImage(canvas, left, top);
+        }
+
+        int textLeft = rtl ? getPaddingLeft() : getPaddingLeft() + getImageWidth();
+        int textTop = contentTop + (contentHeight - getTextHeight()) / 2;
+        canvas.save();
+        canvas.translate(textLeft, textTop);
+        if (mLayoutPrimary != null) {
+            mLayoutPrimary.getPaint().setColor(mTextColorPrimary);
+            mLayoutPrimary.draw(canvas);
+            canvas.translate(0, mLayoutPrimary.getHeight());
+        }
+        if (mLayoutSecondary != null) {
+            mLayoutSecondary.getPaint().setColor(mTextColorSecondary);
+            mLayoutSecondary.draw(canvas);
+        }
+        canvas.restore();
+
+        if (mSelector != null) {
+            mSelector.setBounds(0, 0, width, getHeight());
+            mSelector.draw(canvas);
+        }
+    }
+
+    private void drawImage(Canvas canvas, int left, int top) {
+        int intrinsicWidth = mImage.getIntrinsicWidth();
+        int intrinsicHeight = mImage.getIntrinsicHeight();
+        if (intrinsicWidth <= 0 || intrinsicHeight <= 0 || intrinsicWidth == intrinsicHeight) {
+            mImage.setBounds(left, top, left + mImageSize, top + mImageSize);
+            mImage.draw(canvas);
+            return;
+        }
+
+        // Center crop like the image view of the inflated row
+        float scale = Math.max((float) mImageSize / intrinsicWidth, (float) mImageSize / intrinsicHeight);
+        int scaledWidth = Math.round(intrinsicWidth * scale);
+        int scaledHeight = Math.round(intrinsicHeight * scale);
+        int scaledLeft = left + (mImageSize - scaledWidth) / 2;
+        int scaledTop = top + (mImageSize - scaledHeight) / 2;
+        canvas.save();
+        canvas.clipRect(left, top, left + mImageSize, top + mImageSize);
+        mImage.setBounds(scaledLeft, scaledTop, scaledLeft + scaledWidth, scaledTop + scaledHeight);
+        mImage.draw(canvas);
+        canvas.restore();
+    }
+
+    @Override
+    protected void drawableStateChanged() {
+        super.drawableStateChanged();
+        if (mSelector != null && mSelector.isStateful()) {
+            mSelector.setState(getDrawableState());
+            invalidate();
+        }
+        if (mImage != null && mImage.isStateful()) {
+            mImage.setState(getDrawableState());
+            invalidate();
+        }
+    }
+
+    @Override
+    protected boolean verifyDrawable(Drawable who) {
+        return who == mSelector || who == mImage || super.verifyDrawable(who);
+    }
+
+    @Override
+    public void jumpDrawablesToCurrentState() {
+        super.jumpDrawablesToCurrentState();
+        if (mSelector != null) {
+            mSelector.jumpToCurrentState();
+        }
+        if (mImage != null) {
+            mImage.jumpToCurrentState();
+        }
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        if (mImage != null && changedView == this) {
+            mImage.setVisible(visibility == VISIBLE, false);
+        }
+    }
+
+    @Override
+    public void onPopulateAccessibilityEvent(AccessibilityEvent event) {
+        super.onPopulateAccessibilityEvent(event);
+        if (!TextUtils.isEmpty(mTextPrimary)) {
+            event.getText().add(mTextPrimary);
+        }
+        if (!TextUtils.isEmpty(mTextSecondary)) {
+            event.getText().add(mTextSecondary);
+        }
+    }
+
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        CharSequence text;
+        if (TextUtils.isEmpty(mTextSecondary)) {
+            text = mTextPrimary;
+        } else if (TextUtils.isEmpty(mTextPrimary)) {
+            text = mTextSecondary;
+        } else {
+            text = TextUtils.concat(mTextPrimary, "\n", mTextSecondary);
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            info.setText(text);
+        } else if (TextUtils.isEmpty(getContentDescription())) {
+            // AccessibilityNodeInfo#setText() is only available from Lollipop on
+            info.setContentDescription(text);
+        }
+    }
+}
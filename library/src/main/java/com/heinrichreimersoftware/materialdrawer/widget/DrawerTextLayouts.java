@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.widget;
+
+import android.graphics.Typeface;
+import android.os.AsyncTask;
+import android.support.v4.text.BidiFormatter;
+import android.support.v4.util.LruCache;
+import android.text.Layout;
+import android.text.Spanned;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache of the single line text layouts drawn by {@link DrawerItemView}.
+ * Layouts are keyed by their text, width and typography, and can be built ahead of time on a background thread.
+ * Styled texts are never cached, as their spans can change without the text changing, so they are laid out on every request.
+ * Each layout has its own paint, so its color can be changed on the main thread right before it is drawn.
+ */
+public class DrawerTextLayouts {
+
+    public static final int STYLE_PRIMARY = 0;
+    public static final int STYLE_SECONDARY = 1;
+
+    private static final int MAX_SIZE = 256;
+
+    private static final Typeface TYPEFACE_PRIMARY = Typeface.create("sans-serif-medium", Typeface.NORMAL);
+
+    private static final LruCache<Key, StaticLayout> cache = new LruCache<>(MAX_SIZE);
+
+    private DrawerTextLayouts() {
+    }
+
+    /**
+     * Gets a cached text layout or builds and caches a new one. Must be called from the main thread.
+     *
+     * @param metrics Metrics to get the typography from
+     * @param style   Either {@link #STYLE_PRIMARY} or {@link #STYLE_SECONDARY}
+     * @param text    The text
+     * @param width   Width available for the text in pixels
+     * @param rtl     Whether the layout direction is right to left
+     * @return The layout of the text, ellipsized to a single line
+     */
+    public static StaticLayout get(DrawerMetrics metrics, int style, CharSequence text, int width, boolean rtl) {
+        if (text instanceof Spanned) {
+            return build(style, getTextSize(metrics, style), text, width, rtl);
+        }
+        Key key = new Key(style, getTextSize(metrics, style), text, width, rtl);
+        StaticLayout layout = cache.get(key);
+        if (layout == null) {
+            layout = build(key);
+            cache.put(key, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Builds the text layouts of the given requests on a background thread, so they can be taken from the cache later.
+     * Layouts that are cached already and styled texts are skipped, and nothing is queued if all of them are.
+     *
+     * @param metrics  Metrics to get the typography from
+     * @param requests Texts to build layouts for
+     * @param rtl      Whether the layout direction is right to left
+     */
+    public static void precompute(DrawerMetrics metrics, List<Request> requests, boolean rtl) {
+        List<Key> missingKeys = new ArrayList<>();
+        for (Request request : requests) {
+            if (request.text instanceof Spanned) {
+                continue;
+            }
+            Key key = new Key(request.style, getTextSize(metrics, request.style), request.text, request.width, rtl);
+            if (cache.get(key) == null) {
+                missingKeys.add(key);
+            }
+        }
+        if (missingKeys.isEmpty()) {
+            return;
+        }
+        final Key[] keys = missingKeys.toArray(new Key[missingKeys.size()]);
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Key key : keys) {
+                    if (cache.get(key) == null) {
+                        cache.put(key, build(key));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops all cached layouts
+     */
+    public static void clear() {
+        cache.evictAll();
+    }
+
+    private static float getTextSize(DrawerMetrics metrics, int style) {
+        return style == STYLE_PRIMARY ? metrics.getTextSizePrimary() : metrics.getTextSizeSecondary();
+    }
+
+    private static StaticLayout build(Key key) {
+        return build(key.style, key.textSize, key.text, key.width, key.rtl);
+    }
+
+    private static StaticLayout build(int style, float textSize, CharSequence text, int width, boolean rtl) {
+        TextPaint paint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+        paint.setTextSize(textSize);
+        if (style == STYLE_PRIMARY) {
+            paint.setTypeface(TYPEFACE_PRIMARY);
+        }
+
+        if (text == null) {
+            text = "";
+        }
+        width = Math.max(0, width);
+        CharSequence ellipsized = TextUtils.ellipsize(text, paint, width, TextUtils.TruncateAt.END);
+        Layout.Alignment alignment = BidiFormatter.getInstance(rtl).isRtl(text.toString()) == rtl ?
+                Layout.Alignment.ALIGN_NORMAL : Layout.Alignment.ALIGN_OPPOSITE;
+        return new StaticLayout(ellipsized, paint, width, alignment, 1, 0, true);
+    }
+
+
+    /**
+     * A text to build a layout for
+     */
+    public static class Request {
+        private final int style;
+        private final CharSequence text;
+        private final int width;
+
+        /**
+         * @param style Either {@link #STYLE_PRIMARY} or {@link #STYLE_SECONDARY}
+         * @param text  The text
+         * @param width Width available for the text in pixels
+         */
+        public Request(int style, CharSequence text, int width) {
+            this.style = style;
+            this.text = text;
+            this.width = width;
+        }
+    }
+
+    /**
+     * Key of a plain text layout. Styled texts are not keyed, as converting them to a string would drop their spans.
+     */
+    private static class Key {
+        private final int style;
+        private final float textSize;
+        private final String text;
+        private final int width;
+        private final boolean rtl;
+
+        private Key(int style, float textSize, CharSequence text, int width, boolean rtl) {
+            this.style = style;
+            this.textSize = textSize;
+            this.text = text != null ? text.toString() : "";
+            this.width = width;
+            this.rtl = rtl;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return style == key.style && Float.compare(key.textSize, textSize) == 0 &&
+                    width == key.width && rtl == key.rtl && text.equals(key.text);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = style;
+            result = 31 * result + Float.floatToIntBits(textSize);
+            result = 31 * result + text.hashCode();
+            result = 31 * result + width;
+            result = 31 * result + (rtl ? 1 : 0);
+            return result;
+        }
+    }
+}
@@ -19,14 +19,20 @@ package com.heinrichreimersoftware.materialdrawer.widget;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
+import android.support.v4.util.LongSparseArray;
 import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.view.SoundEffectConstants;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 import android.widget.ListAdapter;
 
 import com.heinrichreimersoftware.materialdrawer.R;
 
+import java.util.ArrayList;
+
 /**
  * An extension of a linear layout that supports the divider API of Android
  * 4.0+. You can populate this layout with data that comes from a
@@ -45,6 +51,10 @@ public class LinearListView extends IcsLinearLayout {
     private View mEmptyView;
     private ListAdapter mAdapter;
     private boolean mAreAllItemsSelectable;
+    private LongSparseArray<View> mChildrenById = new LongSparseArray<>();
+    private LongSparseArray<View> mScrapChildrenById = new LongSparseArray<>();
+    private final OnClickListener mInternalOnClickListener = new InternalOnClickListener();
+    private RecycledViewPool mRecycledViewPool = new RecycledViewPool();
     private final DataSetObserver mDataObserver = new DataSetObserver() {
 
         @Override
@@ -57,6 +67,14 @@ public class LinearListView extends IcsLinearLayout {
             setupChildren();
         }
 
+    };
+    private final ItemObserver mItemObserver = new ItemObserver() {
+
+        @Override
+        public void onItemChanged(int position, int payload) {
+            rebindChild(position, payload);
+        }
+
     };
     private OnItemClickListener mOnItemClickListener;
 
@@ -128,12 +146,21 @@ public class LinearListView extends IcsLinearLayout {
     public void setAdapter(ListAdapter adapter) {
         if (mAdapter != null) {
             mAdapter.unregisterDataSetObserver(mDataObserver);
+            if (mAdapter instanceof PartialBindAdapter) {
+                ((PartialBindAdapter) mAdapter).unregisterItemObserver(mItemObserver);
+            }
         }
 
         mAdapter = adapter;
 
+        removeAndRecycleAllChildren();
+        mChildrenById.clear();
+
         if (mAdapter != null) {
             mAdapter.registerDataSetObserver(mDataObserver);
+            if (mAdapter instanceof PartialBindAdapter) {
+                ((PartialBindAdapter) mAdapter).registerItemObserver(mItemObserver);
+            }
             mAreAllItemsSelectable = mAdapter.areAllItemsEnabled();
         }
 
@@ -225,20 +252,263 @@ public class LinearListView extends IcsLinearLayout {
 
     private void setupChildren() {
 
-        removeAllViews();
-
         updateEmptyStatus((mAdapter == null) || mAdapter.isEmpty());
 
         if (mAdapter == null) {
+            removeAndRecycleAllChildren();
+            mChildrenById.clear();
+            requestLayout();
+            invalidate();
             return;
         }
 
-        for (int i = 0; i < mAdapter.getCount(); i++) {
-            View child = mAdapter.getView(i, null, this);
-            if (mAreAllItemsSelectable || mAdapter.isEnabled(i)) {
-                child.setOnClickListener(new InternalOnClickListener(i));
+        if (!mAdapter.hasStableIds()) {
+            removeAndRecycleAllChildren();
+            mChildrenById.clear();
+
+            for (int i = 0; i < mAdapter.getCount(); i++) {
+                View child = mAdapter.getView(i, getScrapView(i), this);
+                setupChild(child, i);
+                addViewInLayout(child, -1, getChildLayoutParams(child), true);
             }
-            addViewInLayout(child, -1, child.getLayoutParams(), true);
+            requestLayout();
+            invalidate();
+            return;
+        }
+
+        reconcileChildren();
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Gets the pool detached children are recycled into
+     *
+     * @return The recycled view pool of this list
+     */
+    public RecycledViewPool getRecycledViewPool() {
+        return mRecycledViewPool;
+    }
+
+    /**
+     * Sets the pool detached children are recycled into and new children are taken from.
+     * Lists can share a pool if their adapters use the same view types for the same kind of rows.
+     *
+     * @param pool The pool to use or {@code null} to use a new pool for this list only
+     */
+    public void setRecycledViewPool(RecycledViewPool pool) {
+        mRecycledViewPool = pool != null ? pool : new RecycledViewPool();
+    }
+
+    private View getScrapView(int position) {
+        int viewType = mAdapter.getItemViewType(position);
+        return viewType >= 0 ? mRecycledViewPool.getScrapView(viewType) : null;
+    }
+
+    private void recycleChild(View child) {
+        Object viewType = child.getTag(R.id.mdViewType);
+        if (viewType instanceof Integer && (Integer) viewType >= 0) {
+            mRecycledViewPool.putScrapView((Integer) viewType, child);
+        }
+    }
+
+    private void removeAndRecycleAllChildren() {
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            removeViewInLayout(child);
+            recycleChild(child);
+        }
+    }
+
+    /**
+     * Matches the current children to the adapter items by their IDs.
+     * Children of items that are still present are rebound in place and moved if necessary,
+     * only children of removed items are dropped and only new items get a new child.
+     */
+    private void reconcileChildren() {
+        final int count = mAdapter.getCount();
+        final LongSparseArray<View> oldChildren = mChildrenById;
+        final LongSparseArray<View> newChildren = mScrapChildrenById;
+
+        newChildren.clear();
+        for (int i = 0; i < count; i++) {
+            newChildren.put(mAdapter.getItemId(i), null);
+        }
+
+        for (int i = 0; i < oldChildren.size(); i++) {
+            if (newChildren.indexOfKey(oldChildren.keyAt(i)) < 0) {
+                View child = oldChildren.valueAt(i);
+                removeViewInLayout(child);
+                recycleChild(child);
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            long id = mAdapter.getItemId(i);
+
+            View convertView = newChildren.get(id) == null ? oldChildren.get(id) : null;
+            boolean recycled = convertView == null;
+            if (recycled) {
+                convertView = getScrapView(i);
+            }
+            View child = mAdapter.getView(i, convertView, this);
+            if (!recycled && convertView != child) {
+                removeViewInLayout(convertView);
+                recycleChild(convertView);
+            }
+            if (newChildren.get(id) == null) {
+                newChildren.put(id, child);
+            }
+
+            setupChild(child, i);
+            if (getChildAt(i) != child) {
+                if (child.getParent() == this) {
+                    removeViewInLayout(child);
+                }
+                addViewInLayout(child, i, getChildLayoutParams(child), true);
+            }
+        }
+
+        for (int i = getChildCount() - 1; i >= count; i--) {
+            View child = getChildAt(i);
+            removeViewInLayout(child);
+            recycleChild(child);
+        }
+
+        oldChildren.clear();
+        mChildrenById = newChildren;
+        mScrapChildrenById = oldChildren;
+    }
+
+    /**
+     * Rebinds only the changed parts of a single child.
+     * Falls back to setting up all children if the child doesn't belong to the item at the given position.
+     */
+    private void rebindChild(int position, int payload) {
+        if (!(mAdapter instanceof PartialBindAdapter) || position < 0 || position >= mAdapter.getCount()) {
+            return;
+        }
+
+        View child = getChildAt(position);
+        if (child == null || mChildrenById.get(mAdapter.getItemId(position)) != child) {
+            setupChildren();
+            return;
+        }
+
+        View boundChild = ((PartialBindAdapter) mAdapter).bindView(position, child, this, payload);
+        if (boundChild == child) {
+            applyRowVisibility(child, position);
+        } else {
+            removeViewInLayout(child);
+            recycleChild(child);
+            setupChild(boundChild, position);
+            addViewInLayout(boundChild, position, getChildLayoutParams(boundChild), true);
+            mChildrenById.put(mAdapter.getItemId(position), boundChild);
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    private ViewGroup.LayoutParams getChildLayoutParams(View child) {
+        ViewGroup.LayoutParams params = child.getLayoutParams();
+        return params != null ? params : generateDefaultLayoutParams();
+    }
+
+    /**
+     * Shows or hides the children again after the visibility of the rows of a {@link RowFilterAdapter} changed.
+     * Hidden children stay bound and attached, they are just left out of layout.
+     */
+    public void refreshRowVisibility() {
+        if (mAdapter == null) {
+            return;
+        }
+        int count = Math.min(getChildCount(), mAdapter.getCount());
+        for (int i = 0; i < count; i++) {
+            applyRowVisibility(getChildAt(i), i);
+        }
+    }
+
+    private void applyRowVisibility(View child, int position) {
+        boolean visible = !(mAdapter instanceof RowFilterAdapter) || ((RowFilterAdapter) mAdapter).isRowVisible(position);
+        int visibility = visible ? VISIBLE : GONE;
+        if (child.getVisibility() != visibility) {
+            child.setVisibility(visibility);
+        }
+    }
+
+    private void setupChild(View child, int position) {
+        applyRowVisibility(child, position);
+        child.setTag(R.id.mdViewType, mAdapter.getItemViewType(position));
+        if (mAreAllItemsSelectable || mAdapter.isEnabled(position)) {
+            child.setOnClickListener(mInternalOnClickListener);
+        } else {
+            child.setOnClickListener(null);
+            child.setClickable(false);
+        }
+    }
+
+    /**
+     * Detached children grouped by their adapter view type, passed back to the adapter as convert views.
+     */
+    public static class RecycledViewPool {
+        private static final int DEFAULT_MAX_SCRAP = 8;
+
+        private final SparseArray<ArrayList<View>> mScrap = new SparseArray<>();
+        private final SparseIntArray mMaxScrap = new SparseIntArray();
+
+        /**
+         * Takes a recycled view of the given type out of the pool
+         *
+         * @param viewType The adapter view type
+         * @return A detached view or {@code null} if there is no recycled view of that type.
+         */
+        public View getScrapView(int viewType) {
+            ArrayList<View> scrap = mScrap.get(viewType);
+            if (scrap == null || scrap.isEmpty()) {
+                return null;
+            }
+            return scrap.remove(scrap.size() - 1);
+        }
+
+        /**
+         * Puts a detached view into the pool, unless the pool is full for its type
+         *
+         * @param viewType The adapter view type of the view
+         * @param view     The view to recycle
+         */
+        public void putScrapView(int viewType, View view) {
+            if (view.getParent() != null) {
+                return;
+            }
+            ArrayList<View> scrap = mScrap.get(viewType);
+            if (scrap == null) {
+                scrap = new ArrayList<>();
+                mScrap.put(viewType, scrap);
+            }
+            if (scrap.size() < mMaxScrap.get(viewType, DEFAULT_MAX_SCRAP)) {
+                scrap.add(view);
+            }
+        }
+
+        /**
+         * Sets how many views of a type the pool keeps
+         *
+         * @param viewType The adapter view type
+         * @param max      The maximum number of recycled views
+         */
+        public void setMaxScrap(int viewType, int max) {
+            mMaxScrap.put(viewType, max);
+            ArrayList<View> scrap = mScrap.get(viewType);
+            while (scrap != null && scrap.size() > max) {
+                scrap.remove(scrap.size() - 1);
+            }
+        }
+
+        /**
+         * Drops all recycled views
+         */
+        public void clear() {
+            mScrap.clear();
         }
     }
 
@@ -264,6 +534,69 @@ public class LinearListView extends IcsLinearLayout {
         void onItemClick(LinearListView parent, View view, int position, long id);
     }
 
+    /**
+     * A {@link ListAdapter} that can rebind only the changed parts of a single row
+     * instead of notifying a change of the whole data set.
+     */
+    public interface PartialBindAdapter extends ListAdapter {
+
+        /**
+         * Registers an observer that is called when only parts of a single item changed.
+         *
+         * @param observer The observer to register
+         */
+        void registerItemObserver(ItemObserver observer);
+
+        /**
+         * Unregisters an observer previously registered with {@link #registerItemObserver(ItemObserver)}.
+         *
+         * @param observer The observer to unregister
+         */
+        void unregisterItemObserver(ItemObserver observer);
+
+        /**
+         * Binds the changed parts of the item at the given position to a view.
+         * Works like {@link #getView(int, View, ViewGroup)}, but only updates the parts of
+         * the view described by the payload if the view can be reused.
+         *
+         * @param position    The position of the item
+         * @param convertView The view currently displaying the item
+         * @param parent      The parent the view is attached to
+         * @param payload     Adapter specific flags describing the changed parts
+         * @return The view displaying the item, which may be a new view if the old one couldn't be reused.
+         */
+        View bindView(int position, View convertView, ViewGroup parent, int payload);
+    }
+
+    /**
+     * A {@link ListAdapter} that can hide some of its rows without removing their items,
+     * for example while filtering.
+     */
+    public interface RowFilterAdapter extends ListAdapter {
+
+        /**
+         * Gets whether the row of the item at the given position should be shown.
+         *
+         * @param position The position of the item
+         * @return True if the row should be shown, false if it should be hidden.
+         */
+        boolean isRowVisible(int position);
+    }
+
+    /**
+     * Receives change notifications of single items from a {@link PartialBindAdapter}.
+     */
+    public interface ItemObserver {
+
+        /**
+         * Called when parts of a single item changed.
+         *
+         * @param position The position of the changed item
+         * @param payload  Adapter specific flags describing the changed parts
+         */
+        void onItemChanged(int position, int payload);
+    }
+
     /**
      * Internal OnClickListener that this view associate of each of its children
      * so that they can respond to OnItemClick listener's events. Avoid setting
@@ -272,17 +605,12 @@ public class LinearListView extends IcsLinearLayout {
      */
     private class InternalOnClickListener implements OnClickListener {
 
-        private final int mPosition;
-
-        public InternalOnClickListener(int position) {
-            mPosition = position;
-        }
-
         @Override
         public void onClick(View v) {
-            if ((mOnItemClickListener != null) && (mAdapter != null)) {
+            int position = indexOfChild(v);
+            if ((mOnItemClickListener != null) && (mAdapter != null) && position >= 0 && position < mAdapter.getCount()) {
                 mOnItemClickListener.onItemClick(LinearListView.this, v,
-                        mPosition, mAdapter.getItemId(mPosition));
+                        position, mAdapter.getItemId(position));
             }
         }
     }
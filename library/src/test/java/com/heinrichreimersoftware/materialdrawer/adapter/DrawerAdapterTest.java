@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.heinrichreimersoftware.materialdrawer.BuildConfig;
+import com.heinrichreimersoftware.materialdrawer.R;
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerHeaderItem;
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerItem;
+import com.heinrichreimersoftware.materialdrawer.theme.DrawerTheme;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class DrawerAdapterTest {
+
+    private static final int ROWS = 20;
+
+    private LookupCountingContext context;
+    private ViewGroup parent;
+
+    @Before
+    public void setUp() {
+        RuntimeEnvironment.application.setTheme(R.style.Theme_MaterialDrawer_Light);
+        context = new LookupCountingContext(RuntimeEnvironment.application);
+        parent = new LinearLayout(context);
+    }
+
+    @Test
+    public void metricsAreResolvedOncePerContext() {
+        DrawerMetrics metrics = DrawerMetrics.get(context);
+        assertTrue(context.getLookups() > 0);
+
+        context.resetLookups();
+
+        assertSame(metrics, DrawerMetrics.get(context));
+        assertEquals(0, context.getLookups());
+    }
+
+    @Test
+    public void metricsAreResolvedAgainAfterConfigurationChange() {
+        DrawerMetrics metrics = DrawerMetrics.get(context);
+
+        Resources resources = context.getResources();
+        Configuration configuration = new Configuration(resources.getConfiguration());
+        configuration.orientation = configuration.orientation == Configuration.ORIENTATION_LANDSCAPE ?
+                Configuration.ORIENTATION_PORTRAIT : Configuration.ORIENTATION_LANDSCAPE;
+        //noinspection deprecation
+        resources.updateConfiguration(configuration, resources.getDisplayMetrics());
+
+        DrawerMetrics changedMetrics = DrawerMetrics.get(context);
+        assertNotSame(metrics, changedMetrics);
+        assertSame(changedMetrics, DrawerMetrics.get(context));
+
+        DrawerMetrics.invalidate(context);
+        assertNotSame(changedMetrics, DrawerMetrics.get(context));
+    }
+
+    @Test
+    public void rebindingRowsDoesNoResourceLookups() {
+        DrawerAdapter adapter = createAdapter();
+        View[] rows = bindAll(adapter, new View[ROWS]);
+
+        context.resetLookups();
+        bindAll(adapter, rows);
+
+        assertEquals("Resource lookups for " + ROWS + " rows", 0, context.getLookups());
+    }
+
+    @Test
+    public void rebindingRowsKeepsViewsAndHolders() {
+        DrawerAdapter adapter = createAdapter();
+        View[] rows = bindAll(adapter, new View[ROWS]);
+        Object[] holders = getTags(rows);
+
+        View[] reboundRows = bindAll(adapter, rows.clone());
+
+        for (int i = 0; i < ROWS; i++) {
+            assertSame("Row " + i, rows[i], reboundRows[i]);
+            assertNotNull("Holder of row " + i, holders[i]);
+            assertSame("Holder of row " + i, holders[i], reboundRows[i].getTag());
+        }
+    }
+
+    @Test
+    public void recycledRowsBindTheirOwnViews() {
+        DrawerAdapter adapter = createAdapter();
+        View[] rows = bindAll(adapter, new View[ROWS]);
+        Object[] holders = getTags(rows);
+
+        // Rows of the same type are five positions apart
+        for (int i = 0; i < ROWS; i++) {
+            View row = rows[(i + 5) % ROWS];
+            assertSame(row, adapter.getView(i, row, parent));
+            assertSame(holders[(i + 5) % ROWS], row.getTag());
+
+            DrawerItem item = adapter.getItem(i);
+            assertNotNull(item);
+            if (!item.isHeader()) {
+                TextView textPrimary = (TextView) row.findViewById(R.id.mdTextPrimary);
+                assertEquals(item.getTextPrimary(), textPrimary.getText().toString());
+            }
+        }
+    }
+
+    @Test
+    public void rebindingFlatRowsKeepsViews() {
+        DrawerAdapter adapter = createAdapter();
+        adapter.setFlatRowsEnabled(true);
+        View[] rows = bindAll(adapter, new View[ROWS]);
+
+        View[] reboundRows = bindAll(adapter, rows.clone());
+
+        for (int i = 0; i < ROWS; i++) {
+            assertSame("Row " + i, rows[i], reboundRows[i]);
+        }
+    }
+
+    private DrawerAdapter createAdapter() {
+        List<DrawerItem> items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            switch (i % 5) {
+                case 0:
+                    items.add(new DrawerHeaderItem().setTitle("Header " + i));
+                    break;
+                case 1:
+                    items.add(new DrawerItem().setTextPrimary("Item " + i));
+                    break;
+                case 2:
+                    items.add(new DrawerItem().setTextPrimary("Item " + i).setTextSecondary("Description"));
+                    break;
+                case 3:
+                    items.add(new DrawerItem().setImage(new ColorDrawable(Color.RED)).setTextPrimary("Icon " + i));
+                    break;
+                default:
+                    items.add(new DrawerItem().setImage(new ColorDrawable(Color.BLUE), DrawerItem.AVATAR).setTextPrimary("Avatar " + i));
+                    break;
+            }
+        }
+        DrawerAdapter adapter = new DrawerAdapter(context, items);
+        adapter.setDrawerTheme(new DrawerTheme(context));
+        return adapter;
+    }
+
+    private View[] bindAll(DrawerAdapter adapter, View[] rows) {
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = adapter.getView(i, rows[i], parent);
+        }
+        return rows;
+    }
+
+    private static Object[] getTags(View[] rows) {
+        Object[] tags = new Object[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            tags[i] = rows[i].getTag();
+        }
+        return tags;
+    }
+}
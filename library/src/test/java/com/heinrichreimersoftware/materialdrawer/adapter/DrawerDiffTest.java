@@ -0,0 +1,251 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DrawerDiffTest {
+
+    private static final DrawerDiff.Callback<Element> CALLBACK = new DrawerDiff.Callback<Element>() {
+        @Override
+        public long getId(Element element) {
+            return element.id;
+        }
+
+        @Override
+        public Object getContents(Element element) {
+            return element.content;
+        }
+    };
+
+    @Test
+    public void equalListsAreEmpty() {
+        List<Element> list = elements(1, 2, 3);
+
+        DrawerDiff<Element> diff = DrawerDiff.calculate(list, new ArrayList<>(list), CALLBACK);
+
+        assertTrue(diff.isEmpty());
+        assertFalse(diff.isStructural());
+    }
+
+    @Test
+    public void insertsAtStartMiddleAndEnd() {
+        List<Element> oldList = elements(2, 4);
+        List<Element> newList = Arrays.asList(new Element(1), oldList.get(0), new Element(3), oldList.get(1), new Element(5));
+
+        DrawerDiff<Element> diff = assertApplies(oldList, newList);
+
+        assertEquals(0, diff.getRemovals().length);
+        assertArrayEquals(new int[]{0, 2, 4}, diff.getInsertions());
+    }
+
+    @Test
+    public void removesInDescendingOrder() {
+        List<Element> oldList = elements(1, 2, 3, 4, 5);
+        List<Element> newList = Arrays.asList(oldList.get(1), oldList.get(3));
+
+        DrawerDiff<Element> diff = assertApplies(oldList, newList);
+
+        assertArrayEquals(new int[]{4, 2, 0}, diff.getRemovals());
+        assertEquals(0, diff.getInsertions().length);
+    }
+
+    @Test
+    public void movesOnlyTheMovedElement() {
+        List<Element> oldList = elements(1, 2, 3, 4, 5);
+        List<Element> newList = Arrays.asList(oldList.get(1), oldList.get(2), oldList.get(3), oldList.get(4), oldList.get(0));
+
+        DrawerDiff<Element> diff = assertApplies(oldList, newList);
+
+        assertArrayEquals(new int[]{0}, diff.getRemovals());
+        assertArrayEquals(new int[]{4}, diff.getInsertions());
+    }
+
+    @Test
+    public void reversalKeepsOneElement() {
+        List<Element> oldList = elements(1, 2, 3, 4);
+        List<Element> newList = new ArrayList<>(oldList);
+        Collections.reverse(newList);
+
+        DrawerDiff<Element> diff = assertApplies(oldList, newList);
+
+        assertEquals(3, diff.getRemovals().length);
+        assertEquals(3, diff.getInsertions().length);
+    }
+
+    @Test
+    public void contentChangeIsNotStructural() {
+        List<Element> oldList = elements(1, 2, 3);
+        List<Element> newList = Arrays.asList(oldList.get(0), new Element(2, "changed"), oldList.get(2));
+
+        DrawerDiff<Element> diff = assertApplies(oldList, newList);
+
+        assertFalse(diff.isStructural());
+        assertArrayEquals(new int[]{1}, diff.getReplacements());
+    }
+
+    @Test
+    public void contentsAreCapturedOncePerElement() {
+        final List<Element> captured = new ArrayList<>();
+        DrawerDiff.Callback<Element> callback = new DrawerDiff.Callback<Element>() {
+            @Override
+            public long getId(Element element) {
+                return element.id;
+            }
+
+            @Override
+            public Object getContents(Element element) {
+                captured.add(element);
+                return element.content;
+            }
+        };
+        List<Element> oldList = elements(1, 2, 3);
+        List<Element> newList = Arrays.asList(oldList.get(2), new Element(2, "changed"), new Element(4));
+
+        DrawerDiff.calculate(oldList, newList, callback);
+
+        List<Element> expected = new ArrayList<>(oldList);
+        expected.addAll(newList);
+        assertEquals(expected, captured);
+    }
+
+    @Test
+    public void randomChangesApplyWithMinimalMoves() {
+        Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+            int size = random.nextInt(30);
+            List<Element> oldList = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                oldList.add(new Element(i));
+            }
+
+            List<Element> newList = new ArrayList<>();
+            for (Element element : oldList) {
+                int action = random.nextInt(4);
+                if (action == 0) {
+                    continue;
+                }
+                newList.add(action == 1 ? new Element(element.id, "changed") : element);
+            }
+            int insertions = random.nextInt(10);
+            for (int i = 0; i < insertions; i++) {
+                newList.add(random.nextInt(newList.size() + 1), new Element(1000 + i));
+            }
+            for (int i = 0; i < newList.size() / 4; i++) {
+                Collections.swap(newList, random.nextInt(newList.size()), random.nextInt(newList.size()));
+            }
+
+            DrawerDiff<Element> diff = assertApplies(oldList, newList);
+
+            int kept = oldList.size() - diff.getRemovals().length;
+            assertEquals(longestKeptSubsequence(oldList, newList), kept);
+        }
+    }
+
+    /**
+     * Applies the difference to a copy of the old list like {@link DrawerDiff#dispatchTo(android.widget.ArrayAdapter)} does
+     */
+    private static DrawerDiff<Element> assertApplies(List<Element> oldList, List<Element> newList) {
+        DrawerDiff<Element> diff = DrawerDiff.calculate(oldList, newList, CALLBACK);
+
+        List<Element> list = new ArrayList<>(oldList);
+        for (int position : diff.getRemovals()) {
+            list.remove(position);
+        }
+        for (int position : diff.getInsertions()) {
+            list.add(position, newList.get(position));
+        }
+        for (int position : diff.getReplacements()) {
+            list.set(position, newList.get(position));
+        }
+        assertEquals(newList, list);
+        return diff;
+    }
+
+    /**
+     * Length of the longest sequence of retained elements in the same relative order, in quadratic time
+     */
+    private static int longestKeptSubsequence(List<Element> oldList, List<Element> newList) {
+        List<Integer> oldPositions = new ArrayList<>();
+        for (Element element : newList) {
+            for (int i = 0; i < oldList.size(); i++) {
+                if (oldList.get(i).id == element.id) {
+                    oldPositions.add(i);
+                    break;
+                }
+            }
+        }
+        int[] lengths = new int[oldPositions.size()];
+        int longest = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = 1;
+            for (int j = 0; j < i; j++) {
+                if (oldPositions.get(j) < oldPositions.get(i)) {
+                    lengths[i] = Math.max(lengths[i], lengths[j] + 1);
+                }
+            }
+            longest = Math.max(longest, lengths[i]);
+        }
+        return longest;
+    }
+
+    private static List<Element> elements(long... ids) {
+        List<Element> elements = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            elements.add(new Element(id));
+        }
+        return elements;
+    }
+
+    private static class Element {
+        private final long id;
+        private final String content;
+
+        private Element(long id) {
+            this(id, "content");
+        }
+
+        private Element(long id, String content) {
+            this.id = id;
+            this.content = content;
+        }
+
+        @Override
+        public String toString() {
+            return id + ":" + content;
+        }
+    }
+}
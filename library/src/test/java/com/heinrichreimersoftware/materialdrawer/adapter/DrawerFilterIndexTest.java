@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerItem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DrawerFilterIndexTest {
+
+    private DrawerFilterIndex index;
+
+    private DrawerItem cafe;
+    private DrawerItem creme;
+    private DrawerItem settings;
+
+    @Before
+    public void setUp() {
+        index = new DrawerFilterIndex(Locale.ENGLISH);
+
+        cafe = new DrawerItem().setTextPrimary("Caf\u00e9");
+        creme = new DrawerItem().setTextPrimary("Cr\u00e8me br\u00fbl\u00e9e").setTextSecondary("Dessert");
+        settings = new DrawerItem().setTextPrimary("Settings").setTextSecondary("Account & privacy");
+
+        index.add(cafe);
+        index.add(creme);
+        index.add(settings);
+    }
+
+    @Test
+    public void wordsAreAccentFoldedAndLowerCase() {
+        assertArrayEquals(new String[]{"creme", "brulee"}, index.getWords("Cr\u00e8me Br\u00fbl\u00e9e"));
+        assertArrayEquals(new String[]{"account", "privacy", "2"}, index.getWords("  Account & privacy (2) "));
+        assertEquals(0, index.getWords("").length);
+        assertEquals(0, index.getWords(null).length);
+        assertEquals(0, index.getWords(" - ").length);
+    }
+
+    @Test
+    public void accentFoldedPrefixFindsAccentedText() {
+        assertMatches(index.find(index.getWords("cafe")), cafe);
+        assertMatches(index.find(index.getWords("CAF")), cafe);
+        assertMatches(index.find(index.getWords("caf\u00e9")), cafe);
+        assertMatches(index.find(index.getWords("brul")), creme);
+    }
+
+    @Test
+    public void prefixMatchesAllItemsWithAWordStartingWithIt() {
+        assertMatches(index.find(index.getWords("c")), cafe, creme);
+        assertMatches(index.find(index.getWords("d")), creme);
+        assertMatches(index.find(index.getWords("x")));
+    }
+
+    @Test
+    public void secondaryTextIsIndexed() {
+        assertMatches(index.find(index.getWords("priv")), settings);
+        assertMatches(index.find(index.getWords("dess")), creme);
+    }
+
+    @Test
+    public void everyQueryWordMustMatch() {
+        assertMatches(index.find(index.getWords("creme dess")), creme);
+        assertMatches(index.find(index.getWords("cr br")), creme);
+        assertMatches(index.find(index.getWords("cafe dess")));
+        assertMatches(index.find(index.getWords("set acc")), settings);
+    }
+
+    @Test
+    public void wordsNeedNotBeInQueryOrder() {
+        assertMatches(index.find(index.getWords("brulee creme")), creme);
+    }
+
+    @Test
+    public void narrowingKeepsOnlyMatchingItems() {
+        String[] previous = index.getWords("c");
+        Set<DrawerItem> matches = index.find(previous);
+        String[] query = index.getWords("cr");
+
+        assertTrue(DrawerFilterIndex.isNarrowing(previous, query));
+        index.narrow(matches, query);
+
+        assertMatches(matches, creme);
+    }
+
+    @Test
+    public void isNarrowing() {
+        assertTrue(DrawerFilterIndex.isNarrowing(words("ca"), words("caf")));
+        assertTrue(DrawerFilterIndex.isNarrowing(words("ca"), words("ca", "d")));
+        assertTrue(DrawerFilterIndex.isNarrowing(words("ca"), words("ca")));
+        assertFalse(DrawerFilterIndex.isNarrowing(words("caf"), words("ca")));
+        assertFalse(DrawerFilterIndex.isNarrowing(words("ca", "d"), words("ca")));
+        assertFalse(DrawerFilterIndex.isNarrowing(words("ca"), words("cr")));
+        assertFalse(DrawerFilterIndex.isNarrowing(null, words("ca")));
+        assertFalse(DrawerFilterIndex.isNarrowing(new String[0], words("ca")));
+    }
+
+    @Test
+    public void updateReindexesChangedText() {
+        cafe.setTextPrimary("Bistro");
+        index.update(cafe);
+
+        assertMatches(index.find(index.getWords("cafe")));
+        assertMatches(index.find(index.getWords("bis")), cafe);
+        assertMatches(index.find(index.getWords("c")), creme);
+    }
+
+    @Test
+    public void removedItemsAreNotFound() {
+        index.remove(creme);
+
+        assertMatches(index.find(index.getWords("c")), cafe);
+        assertFalse(index.matches(creme, index.getWords("creme")));
+
+        index.remove(creme);
+        index.clear();
+
+        assertMatches(index.find(index.getWords("c")));
+    }
+
+    @Test
+    public void addingTwiceIndexesOnce() {
+        index.add(cafe);
+        index.remove(cafe);
+
+        assertMatches(index.find(index.getWords("cafe")));
+    }
+
+    private static String[] words(String... words) {
+        return words;
+    }
+
+    private static void assertMatches(Set<DrawerItem> matches, DrawerItem... expected) {
+        assertEquals(expected.length, matches.size());
+        for (DrawerItem item : expected) {
+            assertTrue("Missing " + item.getTextPrimary(), matches.contains(item));
+        }
+    }
+}
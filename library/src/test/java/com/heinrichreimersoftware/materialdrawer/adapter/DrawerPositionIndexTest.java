@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerItem;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DrawerPositionIndexTest {
+
+    @Test
+    public void positionsArePrefixSumsOfRowCounts() {
+        List<DrawerItem> items = items(5);
+        int[] rowCounts = {1, 3, 1, 4, 2};
+
+        DrawerPositionIndex index = new DrawerPositionIndex(items, rowCounts);
+
+        assertPositions(index, items, rowCounts);
+    }
+
+    @Test
+    public void addingRowsShiftsLaterItems() {
+        List<DrawerItem> items = items(4);
+        int[] rowCounts = {1, 1, 1, 1};
+        DrawerPositionIndex index = new DrawerPositionIndex(items, rowCounts);
+
+        assertTrue(index.addRows(items.get(1), 3));
+        rowCounts[1] += 3;
+
+        assertEquals(0, index.getPosition(items.get(0)));
+        assertEquals(1, index.getPosition(items.get(1)));
+        assertEquals(5, index.getPosition(items.get(2)));
+        assertEquals(6, index.getPosition(items.get(3)));
+        assertPositions(index, items, rowCounts);
+    }
+
+    @Test
+    public void removingRowsShiftsLaterItemsBack() {
+        List<DrawerItem> items = items(3);
+        int[] rowCounts = {5, 1, 1};
+        DrawerPositionIndex index = new DrawerPositionIndex(items, rowCounts);
+
+        assertTrue(index.addRows(items.get(0), -4));
+
+        assertEquals(1, index.getPosition(items.get(1)));
+        assertEquals(2, index.getPosition(items.get(2)));
+    }
+
+    @Test
+    public void unknownItemsAreNotIndexed() {
+        List<DrawerItem> items = items(2);
+        DrawerPositionIndex index = new DrawerPositionIndex(items, new int[]{1, 1});
+        DrawerItem unknown = new DrawerItem().setTextPrimary("Unknown");
+
+        assertEquals(-1, index.getPosition(unknown));
+        assertFalse(index.addRows(unknown, 1));
+        assertEquals(1, index.getPosition(items.get(1)));
+    }
+
+    @Test
+    public void emptyIndex() {
+        DrawerPositionIndex index = new DrawerPositionIndex(new ArrayList<DrawerItem>(), new int[0]);
+
+        assertEquals(-1, index.getPosition(new DrawerItem()));
+    }
+
+    @Test
+    public void randomUpdatesMatchNaiveSums() {
+        Random random = new Random(42);
+        for (int run = 0; run < 100; run++) {
+            int size = 1 + random.nextInt(40);
+            List<DrawerItem> items = items(size);
+            int[] rowCounts = new int[size];
+            for (int i = 0; i < size; i++) {
+                rowCounts[i] = 1 + random.nextInt(5);
+            }
+            DrawerPositionIndex index = new DrawerPositionIndex(items, rowCounts);
+
+            for (int update = 0; update < 20; update++) {
+                int i = random.nextInt(size);
+                int delta = random.nextInt(6) - rowCounts[i] + 1;
+                assertTrue(index.addRows(items.get(i), delta));
+                rowCounts[i] += delta;
+                assertPositions(index, items, rowCounts);
+            }
+        }
+    }
+
+    private static void assertPositions(DrawerPositionIndex index, List<DrawerItem> items, int[] rowCounts) {
+        int position = 0;
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals("Position of item " + i, position, index.getPosition(items.get(i)));
+            position += rowCounts[i];
+        }
+    }
+
+    private static List<DrawerItem> items(int count) {
+        List<DrawerItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new DrawerItem().setTextPrimary("Item " + i));
+        }
+        return items;
+    }
+}
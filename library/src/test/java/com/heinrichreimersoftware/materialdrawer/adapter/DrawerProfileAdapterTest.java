@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+
+import com.heinrichreimersoftware.materialdrawer.BuildConfig;
+import com.heinrichreimersoftware.materialdrawer.R;
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerProfile;
+import com.heinrichreimersoftware.materialdrawer.theme.DrawerTheme;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class DrawerProfileAdapterTest {
+
+    private static final int ROWS = 5;
+
+    private LookupCountingContext context;
+    private ViewGroup parent;
+
+    @Before
+    public void setUp() {
+        RuntimeEnvironment.application.setTheme(R.style.Theme_MaterialDrawer_Light);
+        context = new LookupCountingContext(RuntimeEnvironment.application);
+        parent = new LinearLayout(context);
+    }
+
+    @Test
+    public void rebindingRowsDoesNoResourceLookups() {
+        DrawerProfileAdapter adapter = createAdapter();
+        View[] rows = bindAll(adapter, new View[ROWS]);
+
+        context.resetLookups();
+        bindAll(adapter, rows);
+
+        assertEquals("Resource lookups for " + ROWS + " rows", 0, context.getLookups());
+    }
+
+    @Test
+    public void rebindingRowsKeepsViewsAndHolders() {
+        DrawerProfileAdapter adapter = createAdapter();
+        View[] rows = bindAll(adapter, new View[ROWS]);
+        Object[] holders = new Object[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            holders[i] = rows[i].getTag();
+        }
+
+        View[] reboundRows = bindAll(adapter, rows.clone());
+
+        for (int i = 0; i < ROWS; i++) {
+            assertSame("Row " + i, rows[i], reboundRows[i]);
+            assertNotNull("Holder of row " + i, holders[i]);
+            assertSame("Holder of row " + i, holders[i], reboundRows[i].getTag());
+        }
+    }
+
+    @Test
+    public void changedIdIsReindexed() {
+        DrawerProfile first = new DrawerProfile().setId(1);
+        DrawerProfile second = new DrawerProfile().setId(2);
+        List<DrawerProfile> profiles = new ArrayList<>();
+        profiles.add(first);
+        profiles.add(second);
+        DrawerProfileAdapter adapter = new DrawerProfileAdapter(context, profiles);
+
+        first.setId(3);
+
+        assertTrue(adapter.onIdChanged(first));
+        assertNull(adapter.findById(1));
+        assertSame(first, adapter.findById(3));
+        assertSame(second, adapter.findById(2));
+        assertFalse(adapter.onIdChanged(new DrawerProfile().setId(4)));
+    }
+
+    private DrawerProfileAdapter createAdapter() {
+        List<DrawerProfile> profiles = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            profiles.add(new DrawerProfile()
+                    .setAvatar(new ColorDrawable(Color.RED))
+                    .setName("Profile " + i)
+                    .setDescription("profile" + i + "@example.com"));
+        }
+        DrawerProfileAdapter adapter = new DrawerProfileAdapter(context, profiles);
+        adapter.setDrawerTheme(new DrawerTheme(context));
+        return adapter;
+    }
+
+    private View[] bindAll(DrawerProfileAdapter adapter, View[] rows) {
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = adapter.getView(i, rows[i], parent);
+        }
+        return rows;
+    }
+}
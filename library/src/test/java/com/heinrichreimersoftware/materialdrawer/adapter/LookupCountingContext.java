@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.adapter;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.ColorStateList;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.view.LayoutInflater;
+
+/**
+ * Context counting the dimension, color and drawable lookups made through its resources
+ */
+class LookupCountingContext extends ContextWrapper {
+
+    private final CountingResources resources;
+    private LayoutInflater inflater;
+
+    LookupCountingContext(Context base) {
+        super(base);
+        resources = new CountingResources(base.getResources());
+    }
+
+    @Override
+    public Resources getResources() {
+        return resources;
+    }
+
+    @Override
+    public Object getSystemService(String name) {
+        if (LAYOUT_INFLATER_SERVICE.equals(name)) {
+            if (inflater == null) {
+                inflater = LayoutInflater.from(getBaseContext()).cloneInContext(this);
+            }
+            return inflater;
+        }
+        return super.getSystemService(name);
+    }
+
+    int getLookups() {
+        return resources.lookups;
+    }
+
+    void resetLookups() {
+        resources.lookups = 0;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static class CountingResources extends Resources {
+        private int lookups = 0;
+
+        CountingResources(Resources base) {
+            super(base.getAssets(), base.getDisplayMetrics(), base.getConfiguration());
+        }
+
+        @Override
+        public float getDimension(int id) {
+            lookups++;
+            return super.getDimension(id);
+        }
+
+        @Override
+        public int getDimensionPixelSize(int id) {
+            lookups++;
+            return super.getDimensionPixelSize(id);
+        }
+
+        @Override
+        public int getDimensionPixelOffset(int id) {
+            lookups++;
+            return super.getDimensionPixelOffset(id);
+        }
+
+        @Override
+        public int getColor(int id) {
+            lookups++;
+            return super.getColor(id);
+        }
+
+        @Override
+        public int getColor(int id, Theme theme) {
+            lookups++;
+            return super.getColor(id, theme);
+        }
+
+        @Override
+        public ColorStateList getColorStateList(int id) {
+            lookups++;
+            return super.getColorStateList(id);
+        }
+
+        @Override
+        public ColorStateList getColorStateList(int id, Theme theme) {
+            lookups++;
+            return super.getColorStateList(id, theme);
+        }
+
+        @Override
+        public Drawable getDrawable(int id) {
+            lookups++;
+            return super.getDrawable(id);
+        }
+
+        @Override
+        public Drawable getDrawable(int id, Theme theme) {
+            lookups++;
+            return super.getDrawable(id, theme);
+        }
+    }
+}
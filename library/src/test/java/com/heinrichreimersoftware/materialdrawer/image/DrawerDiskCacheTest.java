@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.image;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class DrawerDiskCacheTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("drawer-disk-cache", "");
+        directory.delete();
+        directory.mkdir();
+    }
+
+    @Test
+    public void sameDirectoryGetsSameCache() {
+        DrawerDiskCache cache = DrawerDiskCache.create(directory, 1024);
+
+        assertSame(cache, DrawerDiskCache.create(directory, 1024));
+        assertSame(cache, DrawerDiskCache.create(new File(directory, "../" + directory.getName()), 1024));
+    }
+
+    @Test
+    public void otherDirectoryGetsOtherCache() {
+        DrawerDiskCache cache = DrawerDiskCache.create(directory, 1024);
+
+        assertNotSame(cache, DrawerDiskCache.create(new File(directory, "other"), 1024));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void otherMaxSizeIsRejected() {
+        DrawerDiskCache.create(directory, 1024);
+        DrawerDiskCache.create(directory, 2048);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.widget;
+
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+
+import com.heinrichreimersoftware.materialdrawer.BuildConfig;
+import com.heinrichreimersoftware.materialdrawer.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class DrawerItemViewTest {
+
+    private DrawerItemView view;
+
+    @Before
+    public void setUp() {
+        RuntimeEnvironment.application.setTheme(R.style.Theme_MaterialDrawer_Light);
+        view = new DrawerItemView(RuntimeEnvironment.application);
+    }
+
+    @Test
+    public void replacedImageLosesCallback() {
+        ColorDrawable first = new ColorDrawable(Color.RED);
+        ColorDrawable second = new ColorDrawable(Color.BLUE);
+
+        view.setImage(first, 24);
+        assertSame(view, first.getCallback());
+
+        view.setImage(second, 24);
+        assertNull(first.getCallback());
+        assertSame(view, second.getCallback());
+    }
+
+    @Test
+    public void tintIsNotAppliedToImage() {
+        ColorDrawable image = new ColorDrawable(Color.RED);
+
+        view.setImage(image, 24);
+        view.setImageColorFilter(Color.BLUE);
+
+        assertNull(image.getColorFilter());
+        assertNull(image.getCallback());
+    }
+
+    @Test
+    public void clearedTintRestoresImage() {
+        ColorDrawable image = new ColorDrawable(Color.RED);
+
+        view.setImage(image, 24);
+        view.setImageColorFilter(Color.BLUE);
+        view.clearImageColorFilter();
+
+        assertNull(image.getColorFilter());
+        assertSame(view, image.getCallback());
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Jan Heinrich Reimer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heinrichreimersoftware.materialdrawer.widget;
+
+import android.view.View;
+import android.widget.TextView;
+
+import com.heinrichreimersoftware.materialdrawer.BuildConfig;
+import com.heinrichreimersoftware.materialdrawer.R;
+import com.heinrichreimersoftware.materialdrawer.adapter.DrawerAdapter;
+import com.heinrichreimersoftware.materialdrawer.structure.DrawerItem;
+import com.heinrichreimersoftware.materialdrawer.theme.DrawerTheme;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class LinearListViewTest {
+
+    private LinearListView list;
+
+    @Before
+    public void setUp() {
+        RuntimeEnvironment.application.setTheme(R.style.Theme_MaterialDrawer_Light);
+        list = new LinearListView(RuntimeEnvironment.application);
+    }
+
+    @Test
+    public void uniqueIdsKeepChildrenOfKeptItems() {
+        DrawerItem a = item("A", 1);
+        DrawerItem b = item("B", 2);
+        DrawerItem c = item("C", 3);
+        DrawerAdapter adapter = setAdapter(a, b, c);
+        assertTrue(adapter.hasStableIds());
+        View childA = list.getChildAt(0);
+        View childC = list.getChildAt(2);
+
+        adapter.remove(b);
+
+        assertTexts("A", "C");
+        assertSame(childA, list.getChildAt(0));
+        assertSame(childC, list.getChildAt(1));
+    }
+
+    @Test
+    public void defaultIdsAreNotStable() {
+        DrawerAdapter adapter = setAdapter(item("A", -1), item("B", -1), item("C", -1));
+        assertFalse(adapter.hasStableIds());
+        assertTexts("A", "B", "C");
+
+        adapter.insert(item("D", -1), 1);
+        assertTexts("A", "D", "B", "C");
+
+        adapter.remove(adapter.getItem(2));
+        assertTexts("A", "D", "C");
+    }
+
+    @Test
+    public void duplicateIdsAreNotStable() {
+        DrawerItem a = item("A", 1);
+        DrawerItem b = item("B", 2);
+        DrawerAdapter adapter = setAdapter(a, b);
+        assertTrue(adapter.hasStableIds());
+
+        DrawerItem duplicate = item("Duplicate", 2);
+        adapter.insert(duplicate, 0);
+
+        assertFalse(adapter.hasStableIds());
+        assertTexts("Duplicate", "A", "B");
+
+        adapter.remove(b);
+        assertTexts("Duplicate", "A");
+    }
+
+    @Test
+    public void idsAreStableAgainOnceUnique() {
+        DrawerItem a = item("A", 1);
+        DrawerItem b = item("B", 1);
+        DrawerItem c = item("C", 1);
+        DrawerAdapter adapter = setAdapter(a, b, c);
+        assertFalse(adapter.hasStableIds());
+
+        b.setId(2);
+        assertFalse(adapter.hasStableIds());
+        c.setId(3);
+        assertTrue(adapter.hasStableIds());
+        assertSame(b, adapter.findById(2));
+        assertSame(c, adapter.findById(3));
+
+        adapter.notifyDataSetChanged();
+        View childA = list.getChildAt(0);
+        View childC = list.getChildAt(2);
+
+        adapter.remove(b);
+
+        assertTexts("A", "C");
+        assertSame(childA, list.getChildAt(0));
+        assertSame(childC, list.getChildAt(1));
+    }
+
+    private DrawerAdapter setAdapter(DrawerItem... items) {
+        List<DrawerItem> dataSet = new ArrayList<>(Arrays.asList(items));
+        DrawerAdapter adapter = new DrawerAdapter(RuntimeEnvironment.application, dataSet);
+        adapter.setDrawerTheme(new DrawerTheme(RuntimeEnvironment.application));
+        for (DrawerItem item : items) {
+            item.attachTo(adapter);
+        }
+        list.setAdapter(adapter);
+        return adapter;
+    }
+
+    private void assertTexts(String... texts) {
+        assertEquals(texts.length, list.getChildCount());
+        for (int i = 0; i < texts.length; i++) {
+            TextView textPrimary = (TextView) list.getChildAt(i).findViewById(R.id.mdTextPrimary);
+            assertEquals("Row " + i, texts[i], textPrimary.getText().toString());
+        }
+    }
+
+    private static DrawerItem item(String text, long id) {
+        return new DrawerItem().setTextPrimary(text).setId(id);
+    }
+}